@@ -0,0 +1,123 @@
+package org.apache.ofbiz.mcp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.journal.RequestJournal;
+import org.apache.ofbiz.mcp.metrics.McpMetrics;
+import org.apache.ofbiz.mcp.ratelimit.SlidingWindowRateLimiter;
+import org.apache.ofbiz.mcp.scheduling.FairShares;
+import org.apache.ofbiz.mcp.tools.ToolBulkheads;
+import org.apache.ofbiz.mcp.tools.ToolContext;
+import org.apache.ofbiz.mcp.tools.ToolHandler;
+import org.apache.ofbiz.mcp.tools.ToolRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One POST to /mcp per operation, from the request bytes to the response
+ * bytes, as Spring's message converters would do it. tools/call goes to a
+ * tool that answers immediately, so only the dispatch cost is measured.
+ * With journal=true every request is also journaled to a temporary
+ * directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class McpDispatchBenchmark {
+
+    @Param({ "initialize", "tools/list", "tools/call", "ping" })
+    public String method;
+
+    @Param({ "false", "true" })
+    public boolean journal;
+
+    private ObjectMapper mapper;
+    private RequestJournal requestJournal;
+    private McpController controller;
+    private byte[] request;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        AppConfig config = new AppConfig();
+        config.setRateLimitWindowMs(0);
+        if (journal) {
+            config.setJournalDir(Files.createTempDirectory("mcp-journal").toString());
+        }
+        requestJournal = new RequestJournal(config, mapper);
+        requestJournal.start();
+        ToolRegistry tools = new ToolRegistry(List.of(new NoopTool()), mapper, event -> {
+        });
+        InFlightCalls inFlight = new InFlightCalls();
+        controller = new McpController(tools, new ToolBulkheads(config), new SseSessionRegistry(config, inFlight),
+                inFlight, new DisconnectWatcher(config), new SlidingWindowRateLimiter(config), mapper, new McpMetrics(new SimpleMeterRegistry()),
+                requestJournal, new FairShares(config), config);
+
+        String params = method.equals("tools/call")
+                ? ",\"params\":{\"name\":\"noop\",\"arguments\":{\"value\":\"x\"}}"
+                : method.equals("initialize")
+                        ? ",\"params\":{\"protocolVersion\":\"2024-11-05\",\"capabilities\":{},"
+                                + "\"clientInfo\":{\"name\":\"bench\",\"version\":\"1\"}}"
+                        : "";
+        request = ("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"" + method + "\"" + params + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestJournal.stop();
+    }
+
+    @Benchmark
+    public byte[] dispatch() throws Exception {
+        JsonNode body = mapper.readTree(request);
+        Object response = Mono.from(controller.handlePost(body, new MockHttpServletRequest(),
+                new MockHttpServletResponse())).block();
+        return mapper.writeValueAsBytes(response);
+    }
+
+    private static final class NoopTool implements ToolHandler {
+        private static final Object RESULT = Map.of("content", List.of(Map.of("type", "text", "text", "ok")));
+
+        @Override
+        public String getName() {
+            return "noop";
+        }
+
+        @Override
+        public Map<String, Object> getDefinition() {
+            return Map.of("name", getName(), "description", "Returns immediately",
+                    "inputSchema", Map.of("type", "object"));
+        }
+
+        @Override
+        public Mono<Object> executeAsync(Map<String, Object> arguments, ToolContext context) {
+            return Mono.just(RESULT);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.apache.ofbiz.mcp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-RPC request decoding and response encoding, with the same Jackson
+ * setup Spring Boot gives the controller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRpcCodecBenchmark {
+
+    private ObjectMapper mapper;
+    private byte[] pingRequest;
+    private byte[] toolsCallRequest;
+    private JsonRpcResponse toolsListResponse;
+    private JsonRpcResponse toolsCallResponse;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        pingRequest = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"ping\"}".getBytes(StandardCharsets.UTF_8);
+        toolsCallRequest = ("{\"jsonrpc\":\"2.0\",\"id\":42,\"method\":\"tools/call\",\"params\":{\"name\":"
+                + "\"updateExamples\",\"arguments\":{\"ids\":[\"10100\",\"10101\",\"10102\",\"10103\"],"
+                + "\"description\":\"Updated by benchmark\"},\"_meta\":{\"progressToken\":\"p-1\"}}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        Map<String, Object> tool = Map.of("name", "createExamples", "description", "Creates examples",
+                "inputSchema", Map.of("type", "object", "properties",
+                        Map.of("count", Map.of("type", "number"), "prefix", Map.of("type", "string"))));
+        toolsListResponse = JsonRpcResponse.success(2,
+                PrecomputedJson.of(mapper, Map.of("tools", List.of(tool, tool, tool, tool))));
+        toolsCallResponse = JsonRpcResponse.success(42, Map.of("content",
+                List.of(Map.of("type", "text", "text", "Updated 4 examples. IDs: [10100, 10101, 10102, 10103]"))));
+    }
+
+    @Benchmark
+    public JsonRpcRequest decodePing() throws Exception {
+        return mapper.readValue(pingRequest, JsonRpcRequest.class);
+    }
+
+    @Benchmark
+    public JsonRpcRequest decodeToolsCall() throws Exception {
+        return mapper.readValue(toolsCallRequest, JsonRpcRequest.class);
+    }
+
+    @Benchmark
+    public byte[] encodeToolsList() throws Exception {
+        return mapper.writeValueAsBytes(toolsListResponse);
+    }
+
+    @Benchmark
+    public byte[] encodeToolsCall() throws Exception {
+        return mapper.writeValueAsBytes(toolsCallResponse);
+    }
+}
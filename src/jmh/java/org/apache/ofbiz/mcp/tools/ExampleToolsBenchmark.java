@@ -0,0 +1,174 @@
+package org.apache.ofbiz.mcp.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ofbiz.mcp.backend.AdaptiveConcurrencyLimiter;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.apache.ofbiz.mcp.backend.BackendPoolMetrics;
+import org.apache.ofbiz.mcp.backend.BackendResponseCache;
+import org.apache.ofbiz.mcp.backend.BackendTokenManager;
+import org.apache.ofbiz.mcp.backend.CircuitBreakers;
+import org.apache.ofbiz.mcp.backend.ReadCoalescer;
+import org.apache.ofbiz.mcp.backend.RetryPolicy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.config.WebClientConfig;
+import org.apache.ofbiz.mcp.metrics.McpMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The create and delete tools end to end against an in-process
+ * {@link StubBackend}, plus the listing parser on its own, at several
+ * payload sizes. The response cache is disabled so every delete parses the
+ * listing again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExampleToolsBenchmark {
+
+    private static final int CREATE_COUNT = 10;
+    private static final int DELETE_COUNT = 10;
+    private static final int CHUNK_SIZE = 8192;
+
+    @State(Scope.Benchmark)
+    public static class CreateState {
+        /** Extra bytes in each create response. */
+        @Param({ "0", "1024", "65536" })
+        public int padding;
+
+        Backend backend;
+        CreateExamplesTool tool;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            backend = new Backend(0);
+            backend.stub.setResponsePadding(padding);
+            tool = new CreateExamplesTool(backend.client);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            backend.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DeleteState {
+        /** Records in the example listing. */
+        @Param({ "100", "10000", "100000" })
+        public int examples;
+
+        Backend backend;
+        DeleteExamplesTool tool;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            backend = new Backend(examples);
+            tool = new DeleteExamplesTool(backend.client);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            backend.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListingState {
+        /** Records in the example listing. */
+        @Param({ "100", "10000", "100000" })
+        public int examples;
+
+        List<byte[]> chunks;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            try (StubBackend stub = StubBackend.start(0, examples)) {
+                byte[] listing = HttpClient.create().get().uri(stub.baseUrl() + "/rest/example-rest/example")
+                        .responseContent().aggregate().asByteArray().block();
+                chunks = new ArrayList<>();
+                for (int offset = 0; offset < listing.length; offset += CHUNK_SIZE) {
+                    chunks.add(Arrays.copyOfRange(listing, offset,
+                            Math.min(listing.length, offset + CHUNK_SIZE)));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Object createExamples(CreateState state) {
+        return state.tool.executeAsync(Map.of("count", CREATE_COUNT), ToolContext.of(null)).block();
+    }
+
+    @Benchmark
+    public Object deleteExamples(DeleteState state) {
+        return state.tool.executeAsync(Map.of("count", DELETE_COUNT), ToolContext.of(null)).block();
+    }
+
+    /** The streaming listing parser alone, fed in 8 KiB buffers as they would arrive. */
+    @Benchmark
+    public List<String> newestExampleIds(ListingState state) {
+        Flux<DataBuffer> body = Flux.fromIterable(state.chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+        ClientResponse response = ClientResponse.create(HttpStatus.OK).body(body).build();
+        return NewestExampleIds.newest(DELETE_COUNT).apply(response).block();
+    }
+
+    /** A stub backend and a client wired to it the way the application wires them. */
+    static final class Backend implements AutoCloseable {
+        final StubBackend stub;
+        final ConnectionProvider connections;
+        final BackendClient client;
+
+        Backend(int examples) throws Exception {
+            stub = StubBackend.start(0, examples);
+            AppConfig config = new AppConfig();
+            config.setBackendApiBase(stub.baseUrl());
+            config.setBackendCacheTtlMs(Map.of());
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+            WebClientConfig webClientConfig = new WebClientConfig();
+            connections = webClientConfig.backendConnectionProvider(config, new BackendPoolMetrics());
+            WebClient.Builder builder = webClientConfig.webClientBuilder(config, connections, mapper);
+            WebClient webClient = webClientConfig.backendWebClient(builder, config);
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+            BackendTokenManager tokens = new BackendTokenManager(config, webClient, mapper);
+            client = new BackendClient(webClientConfig.backendNodes(builder, config), tokens, limiter,
+                    new BackendResponseCache(config), new ReadCoalescer(), new RetryPolicy(config, limiter),
+                    new CircuitBreakers(config), new McpMetrics(new SimpleMeterRegistry()));
+        }
+
+        @Override
+        public void close() {
+            connections.dispose();
+            stub.close();
+        }
+    }
+}
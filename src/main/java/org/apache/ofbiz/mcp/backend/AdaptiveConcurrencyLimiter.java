@@ -0,0 +1,286 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.scheduling.FairQueue;
+import org.apache.ofbiz.mcp.scheduling.FairShare;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit shared by every call to the OFBiz backend.
+ *
+ * The limit grows by roughly one per round trip while the backend answers
+ * quickly, and is cut by BACKEND_LIMIT_BACKOFF_RATIO when a call fails with
+ * an overload signal (5xx, 429, timeout, connection error) or when the
+ * smoothed latency exceeds BACKEND_LIMIT_LATENCY_TOLERANCE times the no-load
+ * latency. The limit is cut at most once per round of {@code limit}
+ * completions, so a burst of failures does not collapse it to the minimum.
+ * Calls over the limit wait in a {@link FairQueue}, taking turns by the
+ * {@link FairShare} of the tool call that made them, so one client's batch
+ * does not hold up everybody else's backend calls. Once
+ * BACKEND_LIMIT_QUEUE_MAX calls are waiting, a new one is rejected with
+ * {@link BackendOverloadedException}, or the newest call of a client with
+ * more calls waiting is rejected in its place.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int RTT_WINDOW_SAMPLES = 500;
+    private static final double RTT_SMOOTHING = 0.1;
+    // Jitter below this is never read as congestion, even for very fast endpoints
+    private static final long LATENCY_SLACK_NANOS = 2_000_000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    // Guarded by itself
+    private final FairQueue<Call<?>> queue = new FairQueue<>();
+
+    private volatile double limit;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private double smoothedRttNanos;
+    private int samplesSinceBackoff;
+
+    public AdaptiveConcurrencyLimiter(AppConfig appConfig) {
+        this.minLimit = Math.max(1, appConfig.getBackendLimitMin());
+        this.maxLimit = Math.max(minLimit, appConfig.getBackendLimitMax());
+        this.maxQueued = Math.max(0, appConfig.getBackendLimitQueueMax());
+        this.backoffRatio = appConfig.getBackendLimitBackoffRatio();
+        this.latencyTolerance = appConfig.getBackendLimitLatencyTolerance();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, appConfig.getBackendLimitInitial()));
+    }
+
+    /**
+     * Subscribes to {@code call} once the limit allows it. Cancelling the
+     * returned Mono removes a queued call or cancels a running one.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.create(sink -> submit(new Call<>(call, sink)));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private void submit(Call<?> call) {
+        // Calls already waiting go first; a free slot is theirs until drain() has started them
+        if (queued.get() == 0 && tryAcquire()) {
+            call.start();
+            return;
+        }
+        Call<?> evicted = null;
+        synchronized (queue) {
+            if (queue.size() >= maxQueued) {
+                evicted = queue.evictForNewcomer(call.share);
+                if (evicted == null) {
+                    call.sink.error(overloaded());
+                    return;
+                }
+            } else {
+                queued.incrementAndGet();
+            }
+            queue.offer(call, call.share);
+        }
+        if (evicted != null) {
+            evicted.reject(overloaded());
+        }
+        drain();
+    }
+
+    private BackendOverloadedException overloaded() {
+        return new BackendOverloadedException(
+                "Backend concurrency limit reached (" + getLimit() + " in flight, " + maxQueued + " queued)");
+    }
+
+    private boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            while (queued.get() > 0 && tryAcquire()) {
+                Call<?> next;
+                synchronized (queue) {
+                    next = queue.poll();
+                    if (next != null) {
+                        queued.decrementAndGet();
+                    }
+                }
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                next.start();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, boolean dropped) {
+        if (++windowSamples >= RTT_WINDOW_SAMPLES) {
+            // Let the no-load latency follow the backend if it gets permanently slower
+            if (windowMinRttNanos != Long.MAX_VALUE) {
+                noLoadRttNanos = windowMinRttNanos;
+            }
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (!dropped) {
+            windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            noLoadRttNanos = Math.min(noLoadRttNanos, rttNanos);
+            smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos
+                    : smoothedRttNanos + RTT_SMOOTHING * (rttNanos - smoothedRttNanos);
+        }
+        double current = limit;
+        samplesSinceBackoff++;
+        if (dropped || smoothedRttNanos > noLoadRttNanos * latencyTolerance + LATENCY_SLACK_NANOS) {
+            if (samplesSinceBackoff >= current) {
+                limit = Math.max(minLimit, current * backoffRatio);
+                samplesSinceBackoff = 0;
+            }
+        } else if (inFlight.get() * 2 >= current) {
+            // Only grow while the limit is actually being used
+            limit = Math.min(maxLimit, current + 1.0 / current);
+        }
+    }
+
+    /** Failures that say the backend is struggling; other errors, 4xx or our own, are plain samples. */
+    private static boolean isOverload(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private final class Call<T> {
+        private static final int QUEUED = 0, RUNNING = 1, DONE = 2;
+
+        final Mono<T> source;
+        final MonoSink<T> sink;
+        final FairShare share;
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        volatile Disposable upstream;
+        long startNanos;
+
+        Call(Mono<T> source, MonoSink<T> sink) {
+            this.source = source;
+            this.sink = sink;
+            this.share = FairShare.of(sink.contextView());
+            sink.onCancel(this::cancel);
+        }
+
+        void start() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                // Cancelled while queued
+                release();
+                return;
+            }
+            startNanos = System.nanoTime();
+            Admission.admit(sink.contextView());
+            upstream = source.subscribe(this::onValue, this::onError, this::onComplete,
+                    Context.of(sink.contextView()));
+        }
+
+        void onValue(T value) {
+            if (finish(false)) {
+                sink.success(value);
+            }
+        }
+
+        void onError(Throwable error) {
+            if (finish(isOverload(error))) {
+                sink.error(error);
+            }
+        }
+
+        void onComplete() {
+            if (finish(false)) {
+                sink.success();
+            }
+        }
+
+        /** Fails the call, already taken out of the queue, unless it was cancelled meanwhile. */
+        void reject(Throwable error) {
+            if (state.compareAndSet(QUEUED, DONE)) {
+                sink.error(error);
+            }
+        }
+
+        void cancel() {
+            if (state.compareAndSet(QUEUED, DONE)) {
+                synchronized (queue) {
+                    if (queue.remove(this, share)) {
+                        queued.decrementAndGet();
+                    }
+                }
+            } else if (state.compareAndSet(RUNNING, DONE)) {
+                Disposable d = upstream;
+                if (d != null) {
+                    d.dispose();
+                }
+                // A whole batch is usually cancelled at once; draining on this thread would start
+                // queued calls of that batch just before they are cancelled too
+                inFlight.decrementAndGet();
+                Schedulers.parallel().schedule(AdaptiveConcurrencyLimiter.this::drain);
+            }
+        }
+
+        private boolean finish(boolean dropped) {
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                return false;
+            }
+            onSample(System.nanoTime() - startNanos, dropped);
+            release();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.apache.ofbiz.mcp.backend;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * When a backend call got past the {@link AdaptiveConcurrencyLimiter}.
+ * Latencies that judge the backend, slow calls and hedge delays, are
+ * measured from here: time spent queued behind our own limit says nothing
+ * about it. The limiter marks the Admission found in the context of the
+ * call it starts.
+ */
+final class Admission {
+
+    private final Sinks.Empty<Void> admitted = Sinks.empty();
+    private volatile long admittedNanos;
+    private volatile boolean done;
+
+    void admit() {
+        admittedNanos = System.nanoTime();
+        done = true;
+        admitted.tryEmitEmpty();
+    }
+
+    boolean isAdmitted() {
+        return done;
+    }
+
+    /** Time since the call was last admitted; a renewed-token resend is admitted again. */
+    long elapsedNanos() {
+        return System.nanoTime() - admittedNanos;
+    }
+
+    /** Completes when the call is first admitted, never if it is not. */
+    Mono<Void> whenAdmitted() {
+        return admitted.asMono();
+    }
+
+    Context context() {
+        return Context.of(Admission.class, this);
+    }
+
+    static void admit(ContextView context) {
+        context.<Admission>getOrEmpty(Admission.class).ifPresent(Admission::admit);
+    }
+}
@@ -0,0 +1,210 @@
+package org.apache.ofbiz.mcp.backend;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.apache.ofbiz.mcp.metrics.McpMetrics;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Single entry point for calls from the tools to the OFBiz backend.
+ *
+ * Every call goes through the circuit breaker of its endpoint, see
+ * {@link CircuitBreakers}, and the shared {@link AdaptiveConcurrencyLimiter},
+ * so the combined fan-out of all tools stays within what the backend can
+ * sustain, and through the {@link RetryPolicy}, which hedges and retries
+ * within a budget. Reads can be served from the {@link BackendResponseCache}, and
+ * identical reads in flight at the same time share one call through the
+ * {@link ReadCoalescer}; writes invalidate the cached reads of the path they
+ * touch. A call made under a {@link Deadline} fails with
+ * {@link DeadlineExceededException} once it passes, wherever it is waiting.
+ * Each attempt is sent to the node {@link BackendNodes} picks when the
+ * limiter lets it through, so retries and hedges can land elsewhere.
+ */
+@Component
+public class BackendClient {
+
+    private final BackendNodes nodes;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final BackendResponseCache cache;
+    private final ReadCoalescer coalescer;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakers circuitBreakers;
+    private final BackendTokenManager tokens;
+    private final McpMetrics metrics;
+
+    public BackendClient(BackendNodes nodes, BackendTokenManager tokens, AdaptiveConcurrencyLimiter limiter,
+            BackendResponseCache cache, ReadCoalescer coalescer, RetryPolicy retryPolicy,
+            CircuitBreakers circuitBreakers, McpMetrics metrics) {
+        this.tokens = tokens;
+        this.nodes = nodes;
+        this.limiter = limiter;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreakers = circuitBreakers;
+        this.metrics = metrics;
+    }
+
+    public <T> Mono<T> get(String path, Function<ClientResponse, Mono<T>> extractor) {
+        return exchange(HttpMethod.GET, path, Map.of(), null, extractor);
+    }
+
+    /**
+     * GET whose decoded result may be served from, and stored in, the response
+     * cache. {@code cacheVariant} identifies the extractor, so reads of the
+     * same URI that decode it differently are cached separately.
+     */
+    public <T> Mono<T> get(String path, Map<String, ?> queryParams, String cacheVariant,
+            Function<ClientResponse, Mono<T>> extractor) {
+        return read(BackendRequest.of(HttpMethod.GET, path, queryParams, null), cacheVariant, extractor);
+    }
+
+    /**
+     * Like {@link #exchange(BackendRequest, Function)} for a read, going
+     * through the response cache and sharing the call with identical reads
+     * already in flight.
+     */
+    public <T> Mono<T> read(BackendRequest request, String cacheVariant, Function<ClientResponse, Mono<T>> extractor) {
+        // The deadline applies per caller, outside the call that joined callers share
+        Mono<T> shared = coalescer.join(request, cacheVariant, tokens.authorization(), call(request, extractor));
+        return Deadline.bound(cache.lookup(request, cacheVariant, shared));
+    }
+
+    public <T> Mono<T> exchange(HttpMethod method, String path, Map<String, ?> queryParams, Object body,
+            Function<ClientResponse, Mono<T>> extractor) {
+        return exchange(BackendRequest.of(method, path, queryParams, body), extractor);
+    }
+
+    /**
+     * Sends one request and maps the response with {@code extractor}. Error
+     * statuses are turned into a {@code WebClientResponseException} before the
+     * extractor is called. The request may be sent more than once, see
+     * {@link RetryPolicy}.
+     */
+    public <T> Mono<T> exchange(BackendRequest request, Function<ClientResponse, Mono<T>> extractor) {
+        return Deadline.bound(call(request, extractor));
+    }
+
+    private <T> Mono<T> call(BackendRequest request, Function<ClientResponse, Mono<T>> extractor) {
+        String keyHeader = retryPolicy.idempotencyKeyHeader(request.method());
+        Mono<T> call = Mono.defer(() -> {
+            String key = keyHeader == null ? null : UUID.randomUUID().toString();
+            return retryPolicy.apply(request.method(), request.endpoint(), attempt(request, keyHeader, key, extractor));
+        });
+        if (request.method() == HttpMethod.GET) {
+            return call;
+        }
+        String path = request.path();
+        return Mono.defer(() -> {
+            coalescer.forget(path);
+            cache.invalidate(path);
+            return call;
+        }).doFinally(signal -> {
+            coalescer.forget(path);
+            cache.invalidate(path);
+        });
+    }
+
+    /**
+     * One attempt as seen by the retry policy. A 401 renews the backend token
+     * and sends the request once more with the new one.
+     */
+    private <T> Mono<T> attempt(BackendRequest request, String keyHeader, String key,
+            Function<ClientResponse, Mono<T>> extractor) {
+        return Mono.defer(() -> {
+            String authorization = tokens.authorization();
+            return send(request, keyHeader, key, authorization, extractor)
+                    .onErrorResume(WebClientResponseException.Unauthorized.class, e -> tokens.canRefresh()
+                            ? tokens.refresh(authorization).flatMap(renewed ->
+                                    send(request, keyHeader, key, renewed, extractor))
+                            : Mono.error(e));
+        });
+    }
+
+    private <T> Mono<T> send(BackendRequest request, String keyHeader, String key, String authorization,
+            Function<ClientResponse, Mono<T>> extractor) {
+        String endpoint = request.endpoint();
+        return circuitBreakers.execute(endpoint, Mono.defer(() -> {
+            BackendNodes.Node node = nodes.select();
+            long start = System.nanoTime();
+            return node.track(spec(node.getWebClient(), request, keyHeader, key, authorization)
+                    .exchangeToMono(resp -> {
+                        int status = resp.statusCode().value();
+                        Mono<T> body = resp.statusCode().isError() ? resp.createError() : extractor.apply(resp);
+                        return body.doFinally(
+                                signal -> metrics.recordBackend(endpoint, status, System.nanoTime() - start));
+                    })
+                    .onErrorMap(e -> e.getCause() instanceof ReadTimeoutException,
+                            e -> new TimeoutException("No response from " + endpoint + " within the response timeout")))
+                    .doOnError(e -> metrics.recordBackendFailure(endpoint, e, System.nanoTime() - start));
+        }), limiter::execute);
+    }
+
+    private static WebClient.RequestHeadersSpec<?> spec(WebClient webClient, BackendRequest request, String keyHeader,
+            String key, String authorization) {
+        WebClient.RequestBodySpec spec = webClient.method(request.method())
+                .uri(u -> {
+                    u.path(request.path());
+                    if (request.queryParams().isEmpty()) {
+                        return u.build(request.uriVariables());
+                    }
+                    Map<String, Object> variables = new HashMap<>(request.uriVariables());
+                    request.queryParams().forEach((name, value) -> {
+                        u.queryParam(name, "{q." + name + "}");
+                        variables.put("q." + name, value);
+                    });
+                    return u.build(variables);
+                })
+                .headers(h -> {
+                    h.addAll(request.headers());
+                    if (key != null) {
+                        h.set(keyHeader, key);
+                    }
+                    if (authorization != null) {
+                        h.set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                });
+        return request.body() != null ? spec.bodyValue(request.body()) : spec;
+    }
+
+    /**
+     * Upper bound for the number of calls a single tool should have
+     * outstanding at once; anything beyond this would only wait in the
+     * limiter's queue.
+     */
+    public int maxConcurrency() {
+        return limiter.getMaxLimit();
+    }
+
+    /**
+     * Decodes the {@code data} of an OFBiz response envelope into
+     * {@code dataType} straight from the response buffers, with the shared
+     * ObjectMapper; empty if the response has no data.
+     */
+    public static <T> Function<ClientResponse, Mono<T>> toData(Class<T> dataType) {
+        ParameterizedTypeReference<OfbizResponse<T>> type = ParameterizedTypeReference.forType(
+                ResolvableType.forClassWithGenerics(OfbizResponse.class, dataType).getType());
+        return resp -> resp.bodyToMono(type).mapNotNull(OfbizResponse::data);
+    }
+
+    public static Function<ClientResponse, Mono<String>> toStringBody() {
+        return resp -> resp.bodyToMono(String.class);
+    }
+
+    public static Function<ClientResponse, Mono<Void>> toBodiless() {
+        return ClientResponse::releaseBody;
+    }
+}
@@ -0,0 +1,269 @@
+package org.apache.ofbiz.mcp.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The OFBiz nodes backend calls are balanced over: those in
+ * BACKEND_API_NODES, or BACKEND_API_BASE alone.
+ *
+ * Each call goes to the less busy of two nodes picked at random, busy
+ * meaning more calls outstanding, which spreads load about as well as
+ * asking every node while touching only two counters. A node is skipped
+ * while it is down or ejected. Every BACKEND_HEALTH_CHECK_INTERVAL_MS each
+ * node is asked for BACKEND_HEALTH_CHECK_PATH; two failed checks in a row
+ * mark it down and one success brings it back. A node whose calls fail
+ * BACKEND_OUTLIER_CONSECUTIVE_FAILURES times in a row, by a 5xx, a timeout
+ * or no connection at all, is ejected for BACKEND_OUTLIER_EJECTION_MS times
+ * the number of ejections it has had since its last success. No more than
+ * BACKEND_OUTLIER_MAX_EJECTED_PERCENT of the nodes are ejected at once, and
+ * when no node is left to choose from, calls go to the least busy of all
+ * rather than fail. Each node has its own WebClient; connections are pooled
+ * per node, each pool sized by the BACKEND_POOL_* settings.
+ */
+public class BackendNodes {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendNodes.class);
+    private static final int UNHEALTHY_AFTER = 2;
+
+    private final Node[] nodes;
+    private final String healthCheckPath;
+    private final long healthCheckIntervalMs;
+    private final Duration healthCheckTimeout;
+    private final int ejectAfterFailures;
+    private final long ejectionNanos;
+    private final int maxEjectedPercent;
+    private volatile Disposable healthChecks;
+
+    /** @param webClients builds the WebClient of a node from its base URL */
+    public BackendNodes(AppConfig appConfig, Function<String, WebClient> webClients) {
+        this.nodes = urls(appConfig).stream()
+                .map(url -> new Node(url, webClients.apply(url)))
+                .toArray(Node[]::new);
+        this.healthCheckPath = appConfig.getBackendHealthCheckPath();
+        this.healthCheckIntervalMs = appConfig.getBackendHealthCheckIntervalMs();
+        this.healthCheckTimeout = Duration.ofMillis(Math.max(1, appConfig.getBackendHealthCheckTimeoutMs()));
+        this.ejectAfterFailures = appConfig.getBackendOutlierConsecutiveFailures();
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, appConfig.getBackendOutlierEjectionMs()));
+        this.maxEjectedPercent = Math.max(0, Math.min(100, appConfig.getBackendOutlierMaxEjectedPercent()));
+    }
+
+    /** Base URLs of the configured nodes; BACKEND_API_BASE, even if unset, when no nodes are listed. */
+    public static List<String> urls(AppConfig appConfig) {
+        List<String> nodes = appConfig.getBackendApiNodes();
+        return nodes == null || nodes.isEmpty() ? Collections.singletonList(appConfig.getBackendApiBase()) : nodes;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (nodes.length > 1 && healthCheckIntervalMs > 0) {
+            healthChecks = Schedulers.parallel().schedulePeriodically(this::checkHealth,
+                    0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable checks = healthChecks;
+        if (checks != null) {
+            checks.dispose();
+        }
+    }
+
+    /** The node for the next call. */
+    public Node select() {
+        if (nodes.length == 1) {
+            return nodes[0];
+        }
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(nodes.length);
+        int j = random.nextInt(nodes.length - 1);
+        Node a = nodes[i];
+        Node b = nodes[j >= i ? j + 1 : j];
+        boolean aAvailable = a.isAvailable(now);
+        boolean bAvailable = b.isAvailable(now);
+        if (aAvailable && bAvailable) {
+            return a.outstanding.get() <= b.outstanding.get() ? a : b;
+        }
+        if (aAvailable || bAvailable) {
+            return aAvailable ? a : b;
+        }
+        return leastOutstanding(now);
+    }
+
+    public List<Node> getNodes() {
+        return List.of(nodes);
+    }
+
+    private Node leastOutstanding(long now) {
+        Node best = null;
+        Node bestAvailable = null;
+        for (Node node : nodes) {
+            if (best == null || node.outstanding.get() < best.outstanding.get()) {
+                best = node;
+            }
+            if (node.isAvailable(now)
+                    && (bestAvailable == null || node.outstanding.get() < bestAvailable.outstanding.get())) {
+                bestAvailable = node;
+            }
+        }
+        return bestAvailable != null ? bestAvailable : best;
+    }
+
+    private void checkHealth() {
+        for (Node node : nodes) {
+            if (!node.checking.compareAndSet(false, true)) {
+                continue;
+            }
+            node.webClient.get()
+                    .uri(healthCheckPath)
+                    .exchangeToMono(resp -> resp.releaseBody().thenReturn(resp.statusCode().value() < 500))
+                    .timeout(healthCheckTimeout)
+                    .onErrorReturn(false)
+                    .defaultIfEmpty(false)
+                    .doFinally(signal -> node.checking.set(false))
+                    .subscribe(node::healthCheckResult);
+        }
+    }
+
+    /** Ejects {@code node} unless that would eject more than the allowed share of nodes. */
+    private synchronized void eject(Node node) {
+        long now = System.nanoTime();
+        if (node.ejectedUntil - now > 0) {
+            return;
+        }
+        int ejected = 0;
+        for (Node n : nodes) {
+            if (n.ejectedUntil - now > 0) {
+                ejected++;
+            }
+        }
+        if ((ejected + 1) * 100 > maxEjectedPercent * nodes.length) {
+            log.debug("Backend node {} is failing, but {} of {} nodes are ejected already", node.url, ejected,
+                    nodes.length);
+            return;
+        }
+        int streak = ++node.ejectionStreak;
+        node.ejectedUntil = now + ejectionNanos * streak;
+        node.ejections.increment();
+        log.warn("Backend node {} ejected for {} ms after {} failed calls in a row", node.url,
+                TimeUnit.NANOSECONDS.toMillis(ejectionNanos * streak), ejectAfterFailures);
+    }
+
+    /** Whether {@code error} says something about the node rather than the request. */
+    private static boolean isNodeFailure(Throwable error) {
+        return error instanceof WebClientRequestException || error instanceof TimeoutException
+                || error instanceof WebClientResponseException e && e.getStatusCode().is5xxServerError();
+    }
+
+    public final class Node {
+        private final String url;
+        private final WebClient webClient;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private final LongAdder ejections = new LongAdder();
+        private volatile boolean healthy = true;
+        private int failedChecks;
+        private volatile long ejectedUntil = System.nanoTime();
+        private volatile int ejectionStreak;
+
+        private Node(String url, WebClient webClient) {
+            this.url = url;
+            this.webClient = webClient;
+        }
+
+        public WebClient getWebClient() {
+            return webClient;
+        }
+
+        /**
+         * Counts {@code call} as outstanding on this node while it runs, and
+         * its outcome towards ejecting the node.
+         */
+        public <T> Mono<T> track(Mono<T> call) {
+            return Mono.defer(() -> {
+                outstanding.incrementAndGet();
+                return call.doOnSuccess(value -> succeeded())
+                        .doOnError(this::failed)
+                        .doFinally(signal -> outstanding.decrementAndGet());
+            });
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public boolean isEjected() {
+            return ejectedUntil - System.nanoTime() > 0;
+        }
+
+        public long getEjections() {
+            return ejections.sum();
+        }
+
+        boolean isAvailable(long now) {
+            return healthy && ejectedUntil - now <= 0;
+        }
+
+        private void succeeded() {
+            if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+            if (ejectionStreak != 0 && !isEjected()) {
+                ejectionStreak = 0;
+            }
+        }
+
+        private void failed(Throwable error) {
+            if (!isNodeFailure(error)) {
+                succeeded();
+            } else if (ejectAfterFailures > 0 && consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+                consecutiveFailures.set(0);
+                eject(this);
+            }
+        }
+
+        private void healthCheckResult(boolean ok) {
+            if (ok) {
+                failedChecks = 0;
+                if (!healthy) {
+                    healthy = true;
+                    log.info("Backend node {} is healthy again", url);
+                }
+            } else if (++failedChecks >= UNHEALTHY_AFTER && healthy) {
+                healthy = false;
+                log.warn("Backend node {} failed {} health checks in a row", url, failedChecks);
+            }
+        }
+    }
+}
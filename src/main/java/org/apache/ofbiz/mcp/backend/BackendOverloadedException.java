@@ -0,0 +1,12 @@
+package org.apache.ofbiz.mcp.backend;
+
+/**
+ * Raised when a backend call is rejected locally because too many calls are
+ * already in flight or waiting.
+ */
+public class BackendOverloadedException extends RuntimeException {
+
+    public BackendOverloadedException(String message) {
+        super(message);
+    }
+}
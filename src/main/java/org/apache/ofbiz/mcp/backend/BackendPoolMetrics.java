@@ -0,0 +1,86 @@
+package org.apache.ofbiz.mcp.backend;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collects the live metrics of the backend connection pools. Reactor Netty
+ * registers one pool per remote address; each is tracked here until the pool
+ * is disposed, and published as gauges tagged with the pool once bound to a
+ * meter registry.
+ */
+@Component
+public class BackendPoolMetrics implements ConnectionProvider.MeterRegistrar, MeterBinder {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+            ConnectionPoolMetrics metrics) {
+        String key = key(poolName, remoteAddress);
+        pools.put(key, metrics);
+        MeterRegistry r = registry;
+        if (r != null) {
+            bind(r, key, metrics);
+        }
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        String key = key(poolName, remoteAddress);
+        pools.remove(key);
+        List<Meter> removed = meters.remove(key);
+        MeterRegistry r = registry;
+        if (removed != null && r != null) {
+            removed.forEach(r::remove);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        pools.forEach((key, metrics) -> bind(registry, key, metrics));
+    }
+
+    private void bind(MeterRegistry registry, String key, ConnectionPoolMetrics metrics) {
+        meters.computeIfAbsent(key, k -> List.of(
+                gauge(registry, "mcp.backend.pool.active", k, metrics, ConnectionPoolMetrics::acquiredSize),
+                gauge(registry, "mcp.backend.pool.idle", k, metrics, ConnectionPoolMetrics::idleSize),
+                gauge(registry, "mcp.backend.pool.pending", k, metrics, ConnectionPoolMetrics::pendingAcquireSize),
+                gauge(registry, "mcp.backend.pool.allocated", k, metrics, ConnectionPoolMetrics::allocatedSize)));
+    }
+
+    private static Meter gauge(MeterRegistry registry, String name, String pool, ConnectionPoolMetrics metrics,
+            ToIntFunction<ConnectionPoolMetrics> value) {
+        return Gauge.builder(name, metrics, m -> value.applyAsInt(m)).tag("pool", pool).register(registry);
+    }
+
+    public List<PoolStats> snapshot() {
+        return pools.entrySet().stream()
+                .map(e -> new PoolStats(e.getKey(), e.getValue().acquiredSize(), e.getValue().idleSize(),
+                        e.getValue().pendingAcquireSize(), e.getValue().allocatedSize(),
+                        e.getValue().maxAllocatedSize(), e.getValue().maxPendingAcquireSize()))
+                .toList();
+    }
+
+    private static String key(String poolName, SocketAddress remoteAddress) {
+        return poolName + "@" + remoteAddress;
+    }
+
+    public record PoolStats(String pool, int active, int idle, int pending, int allocated, int maxConnections,
+            int maxPending) {
+    }
+}
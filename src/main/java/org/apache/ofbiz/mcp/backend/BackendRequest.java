@@ -0,0 +1,25 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+
+/**
+ * One call to the OFBiz backend. {@code path} may be a URI template whose
+ * {@code {name}} placeholders are filled from {@code uriVariables}; query
+ * parameter values are encoded as URI variables too, so they may contain
+ * any character, JSON included.
+ */
+public record BackendRequest(HttpMethod method, String path, Map<String, ?> uriVariables,
+        Map<String, ?> queryParams, HttpHeaders headers, Object body) {
+
+    public static BackendRequest of(HttpMethod method, String path, Map<String, ?> queryParams, Object body) {
+        return new BackendRequest(method, path, Map.of(), queryParams, HttpHeaders.EMPTY, body);
+    }
+
+    /** Method and path template; identifies the backend operation independently of its arguments. */
+    public String endpoint() {
+        return method.name() + " " + path;
+    }
+}
@@ -0,0 +1,129 @@
+package org.apache.ofbiz.mcp.backend;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache for decoded backend GET responses.
+ *
+ * Entries live for the TTL configured for their path in BACKEND_CACHE_TTL_MS
+ * and are evicted by weight once BACKEND_CACHE_MAX_WEIGHT is reached (a
+ * collection weighs one per element, a string one per KiB, anything else
+ * one). Any write to
+ * a path drops every cached read of that path; a per-path generation counter
+ * keeps a read that was already in flight during the write from storing its
+ * now stale result.
+ */
+@Component
+public class BackendResponseCache {
+
+    private final Map<String, Long> ttlMsByPath;
+    private final Cache<Key, Object> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public BackendResponseCache(AppConfig appConfig) {
+        this.ttlMsByPath = Map.copyOf(appConfig.getBackendCacheTtlMs());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(appConfig.getBackendCacheMaxWeight())
+                .weigher((Key key, Object value) -> weigh(value))
+                .expireAfter(new Expiry<Key, Object>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Object value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(ttlMsByPath.getOrDefault(key.path(), 0L));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public boolean isCacheable(String path) {
+        return ttlMsByPath.getOrDefault(path, 0L) > 0;
+    }
+
+    /**
+     * Returns the cached value for the read, or subscribes to {@code loader}
+     * and caches what it emits. {@code variant} tells apart reads of the same
+     * URI that decode the response differently.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> lookup(BackendRequest request, String variant, Mono<T> loader) {
+        String path = request.path();
+        if (!isCacheable(path)) {
+            return loader;
+        }
+        Key key = new Key(path, request.uriVariables(), request.queryParams(), variant);
+        return Mono.defer(() -> {
+            Object cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just((T) cached);
+            }
+            long generation = generation(path).get();
+            return loader.doOnNext(value -> {
+                if (generation(path).get() == generation) {
+                    cache.put(key, value);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops all cached reads of {@code path}. Called before and after every
+     * write to it.
+     */
+    public void invalidate(String path) {
+        if (!isCacheable(path)) {
+            return;
+        }
+        generation(path).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.path().equals(path));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private AtomicLong generation(String path) {
+        return generations.computeIfAbsent(path, p -> new AtomicLong());
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> c) {
+            return Math.max(1, c.size());
+        }
+        if (value instanceof Map<?, ?> m) {
+            return Math.max(1, m.size());
+        }
+        if (value instanceof CharSequence text) {
+            return 1 + text.length() / 1024;
+        }
+        return 1;
+    }
+
+    private record Key(String path, Map<String, ?> uriVariables, Map<String, ?> queryParams, String variant) {
+    }
+}
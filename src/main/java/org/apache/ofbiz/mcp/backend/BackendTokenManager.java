@@ -0,0 +1,215 @@
+package org.apache.ofbiz.mcp.backend;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the bearer token for the OFBiz backend and renews it in-process.
+ *
+ * With BACKEND_AUTH_USER and BACKEND_AUTH_PASS set (in config.json or the
+ * environment) the token is obtained the way update_token.sh does it: a POST
+ * with Basic credentials to BACKEND_API_AUTH, reading data.access_token. It
+ * is renewed BACKEND_TOKEN_REFRESH_SKEW_MS before the expiry in its JWT
+ * claims, and the precomputed Authorization header is swapped in one write,
+ * so calls never see a half-updated token. A call answered with 401 asks for
+ * a refresh once; concurrent refreshes share one token request, and a caller
+ * whose token was already replaced gets the new one without a request.
+ *
+ * Without credentials BACKEND_ACCESS_TOKEN is used as is and never renewed.
+ */
+@Component
+public class BackendTokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendTokenManager.class);
+    private static final String DEFAULT_AUTH_PATH = "/rest/auth/token";
+    private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+    private static final ParameterizedTypeReference<OfbizResponse<TokenData>> TOKEN_RESPONSE =
+            new ParameterizedTypeReference<>() { };
+
+    private final WebClient webClient;
+    private final ObjectMapper mapper;
+    private final String authUrl;
+    private final String basicCredentials;
+    private final Duration refreshSkew;
+    private final AtomicReference<Mono<String>> refreshing = new AtomicReference<>();
+
+    private volatile String authorization;
+    private volatile Disposable scheduled;
+    private Duration retryDelay = MIN_RETRY_DELAY;
+
+    public BackendTokenManager(AppConfig appConfig, WebClient backendWebClient, ObjectMapper mapper) {
+        this.webClient = backendWebClient;
+        this.mapper = mapper;
+        String configuredUrl = appConfig.getBackendApiAuth();
+        this.authUrl = configuredUrl != null && !configuredUrl.isEmpty() ? configuredUrl
+                : BackendNodes.urls(appConfig).get(0) + DEFAULT_AUTH_PATH;
+        String user = setting(appConfig.getBackendAuthUser(), "BACKEND_AUTH_USER");
+        String password = setting(appConfig.getBackendAuthPass(), "BACKEND_AUTH_PASS");
+        this.basicCredentials = user == null || password == null ? null : "Basic " + Base64.getEncoder()
+                .encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.refreshSkew = Duration.ofMillis(Math.max(0, appConfig.getBackendTokenRefreshSkewMs()));
+        String token = appConfig.getBackendAccessToken();
+        this.authorization = token == null || token.isEmpty() ? null : "Bearer " + token;
+    }
+
+    /**
+     * Gets a token if there is none or it is about to expire, and schedules
+     * the next renewal. The server starts either way; calls made before a
+     * token arrives wait for it through the 401 path.
+     */
+    @PostConstruct
+    public void start() {
+        if (!canRefresh()) {
+            return;
+        }
+        Instant expiry = expiry(authorization);
+        if (authorization == null || (expiry != null && !Instant.now().plus(refreshSkew).isBefore(expiry))) {
+            refresh(authorization).subscribe(t -> { }, e -> { });
+        } else {
+            scheduleRefresh(expiry);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable task = scheduled;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    /** Value for the Authorization header of backend calls, or null if no token is known. */
+    public String authorization() {
+        return authorization;
+    }
+
+    public boolean canRefresh() {
+        return basicCredentials != null;
+    }
+
+    /**
+     * Replaces {@code staleAuthorization} with a new token and emits the new
+     * header value. If the current token already differs from it, that one is
+     * emitted without asking the backend; otherwise every caller shares the
+     * token request in flight.
+     */
+    public Mono<String> refresh(String staleAuthorization) {
+        return Mono.defer(() -> {
+            String current = authorization;
+            if (current != null && !current.equals(staleAuthorization)) {
+                return Mono.just(current);
+            }
+            Mono<String> inFlight = refreshing.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            Mono<String> request = requestToken()
+                    .doOnNext(this::swap)
+                    .doOnError(this::onRefreshFailed)
+                    .doFinally(signal -> refreshing.set(null))
+                    .cache();
+            return refreshing.compareAndSet(null, request) ? request : refresh(staleAuthorization);
+        });
+    }
+
+    private Mono<String> requestToken() {
+        if (!canRefresh()) {
+            return Mono.error(new IllegalStateException(
+                    "Backend token expired and BACKEND_AUTH_USER/BACKEND_AUTH_PASS are not set"));
+        }
+        return webClient.post()
+                .uri(authUrl)
+                .header(HttpHeaders.AUTHORIZATION, basicCredentials)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(TOKEN_RESPONSE)
+                .flatMap(body -> {
+                    String token = body.data() == null ? null : body.data().accessToken();
+                    return token == null || token.isEmpty()
+                            ? Mono.error(new IllegalStateException("No access_token in token response"))
+                            : Mono.just("Bearer " + token);
+                });
+    }
+
+    private void swap(String newAuthorization) {
+        authorization = newAuthorization;
+        retryDelay = MIN_RETRY_DELAY;
+        Instant expiry = expiry(newAuthorization);
+        log.info("Backend token refreshed{}", expiry == null ? "" : ", expires at " + expiry);
+        scheduleRefresh(expiry);
+    }
+
+    private void onRefreshFailed(Throwable error) {
+        if (!canRefresh()) {
+            return;
+        }
+        log.warn("Backend token refresh failed, retrying in {}: {}", retryDelay, error.toString());
+        schedule(retryDelay);
+        retryDelay = retryDelay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY
+                : retryDelay.multipliedBy(2);
+    }
+
+    private void scheduleRefresh(Instant expiry) {
+        if (expiry != null && canRefresh()) {
+            Duration delay = Duration.between(Instant.now(), expiry.minus(refreshSkew));
+            schedule(delay.isNegative() ? Duration.ZERO : delay);
+        }
+    }
+
+    private void schedule(Duration delay) {
+        stop();
+        String current = authorization;
+        scheduled = Schedulers.parallel().schedule(() -> refresh(current).subscribe(t -> { }, e -> { }),
+                delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** The exp claim of a JWT bearer header, or null if the token is not a JWT with one. */
+    private Instant expiry(String bearer) {
+        if (bearer == null) {
+            return null;
+        }
+        String[] parts = bearer.substring("Bearer ".length()).split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            return claims.hasNonNull("exp") ? Instant.ofEpochSecond(claims.get("exp").asLong()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    record TokenData(@JsonProperty("access_token") String accessToken) {
+    }
+
+    private static String setting(String configured, String environmentVariable) {
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        String value = System.getenv(environmentVariable);
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,215 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * One circuit breaker per backend endpoint (method and path template).
+ *
+ * A closed circuit keeps the outcome of the last BACKEND_CIRCUIT_WINDOW_SIZE
+ * calls. Once at least BACKEND_CIRCUIT_MIN_CALLS are recorded and the share
+ * of failures (connection errors, timeouts, 5xx, 429) reaches
+ * BACKEND_CIRCUIT_FAILURE_RATE, or the share of calls slower than
+ * BACKEND_CIRCUIT_SLOW_CALL_MS reaches BACKEND_CIRCUIT_SLOW_CALL_RATE, the
+ * circuit opens. An open circuit fails calls at once with
+ * {@link CircuitOpenException}, before they take a connection or a place
+ * in the limiter's queue. After BACKEND_CIRCUIT_OPEN_MS it lets
+ * BACKEND_CIRCUIT_HALF_OPEN_PROBES calls through and closes again if they
+ * stay under both thresholds, or reopens otherwise. Client errors (4xx)
+ * and local rejections count as neither failure nor success. A call's
+ * duration is counted from its admission by the limiter, so a large local
+ * batch queueing behind our own limit cannot open the circuit of a healthy
+ * backend; a call that fails or times out before it is admitted is not
+ * counted at all.
+ */
+@Component
+public class CircuitBreakers {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakers.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRate;
+    private final double slowCallRate;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int probes;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreakers(AppConfig appConfig) {
+        this.windowSize = Math.max(0, appConfig.getBackendCircuitWindowSize());
+        this.minCalls = Math.max(1, Math.min(windowSize, appConfig.getBackendCircuitMinCalls()));
+        this.failureRate = appConfig.getBackendCircuitFailureRate();
+        this.slowCallRate = appConfig.getBackendCircuitSlowCallRate();
+        this.slowCallNanos = Duration.ofMillis(appConfig.getBackendCircuitSlowCallMs()).toNanos();
+        this.openNanos = Duration.ofMillis(appConfig.getBackendCircuitOpenMs()).toNanos();
+        this.probes = Math.max(1, appConfig.getBackendCircuitHalfOpenProbes());
+    }
+
+    /**
+     * Runs {@code call} through {@code admission}, typically the concurrency
+     * limiter, if the circuit of {@code endpoint} allows it, and records its
+     * outcome from the time {@code admission} starts it; fails with
+     * {@link CircuitOpenException} otherwise.
+     */
+    public <T> Mono<T> execute(String endpoint, Mono<T> call, UnaryOperator<Mono<T>> admission) {
+        if (windowSize == 0) {
+            return admission.apply(call);
+        }
+        Breaker breaker = breakers.computeIfAbsent(endpoint, Breaker::new);
+        return Mono.defer(() -> {
+            long epoch = breaker.acquire();
+            Admission admitted = new Admission();
+            return admission.apply(Mono.defer(() -> {
+                        admitted.admit();
+                        return call;
+                    }))
+                    .doOnSuccess(value -> breaker.onResult(epoch, Outcome.SUCCESS, admitted.elapsedNanos()))
+                    .doOnError(e -> breaker.onResult(epoch,
+                            admitted.isAdmitted() ? classify(e) : Outcome.IGNORED, admitted.elapsedNanos()))
+                    .doOnCancel(() -> breaker.onResult(epoch, Outcome.IGNORED, 0));
+        });
+    }
+
+    public State state(String endpoint) {
+        Breaker breaker = breakers.get(endpoint);
+        return breaker == null ? State.CLOSED : breaker.state;
+    }
+
+    /** Endpoints whose circuit is not closed. */
+    public long getOpenCount() {
+        return breakers.values().stream().filter(b -> b.state != State.CLOSED).count();
+    }
+
+    /** Calls failed fast by an open circuit. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private static Outcome classify(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status >= 500 || status == 429 ? Outcome.FAILURE : Outcome.IGNORED;
+        }
+        if (error instanceof WebClientRequestException || error instanceof TimeoutException) {
+            return Outcome.FAILURE;
+        }
+        return Outcome.IGNORED;
+    }
+
+    private final class Breaker {
+        private static final byte FAILED = 1, SLOW = 2;
+
+        final String endpoint;
+        final byte[] window = new byte[windowSize];
+        volatile State state = State.CLOSED;
+        // Bumped on every transition, so late results of earlier calls are dropped
+        long epoch;
+        int next, count, failures, slow;
+        long openedAt;
+        int probesStarted, probesDone, probeFailures, probesSlow;
+
+        Breaker(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized long acquire() {
+            if (state == State.OPEN) {
+                long waited = System.nanoTime() - openedAt;
+                if (waited < openNanos) {
+                    throw reject(openNanos - waited, false);
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= probes) {
+                    throw reject(Math.min(openNanos, slowCallNanos), true);
+                }
+                probesStarted++;
+            }
+            return epoch;
+        }
+
+        synchronized void onResult(long callEpoch, Outcome outcome, long nanos) {
+            if (callEpoch != epoch || state == State.OPEN) {
+                return;
+            }
+            if (outcome == Outcome.IGNORED) {
+                if (state == State.HALF_OPEN) {
+                    probesStarted--;
+                }
+                return;
+            }
+            byte flags = (byte) ((outcome == Outcome.FAILURE ? FAILED : 0) | (nanos > slowCallNanos ? SLOW : 0));
+            if (state == State.HALF_OPEN) {
+                probesDone++;
+                probeFailures += flags & FAILED;
+                probesSlow += (flags & SLOW) >> 1;
+                if (probesDone >= probes) {
+                    transition(tripped(probeFailures, probesSlow, probesDone) ? State.OPEN : State.CLOSED);
+                }
+                return;
+            }
+            if (count == windowSize) {
+                byte evicted = window[next];
+                failures -= evicted & FAILED;
+                slow -= (evicted & SLOW) >> 1;
+            } else {
+                count++;
+            }
+            window[next] = flags;
+            next = (next + 1) % windowSize;
+            failures += flags & FAILED;
+            slow += (flags & SLOW) >> 1;
+            if (count >= minCalls && tripped(failures, slow, count)) {
+                transition(State.OPEN);
+            }
+        }
+
+        private boolean tripped(int failed, int slowCalls, int calls) {
+            return failed >= failureRate * calls || slowCalls >= slowCallRate * calls;
+        }
+
+        private void transition(State to) {
+            if (to == State.OPEN) {
+                log.warn("Circuit for {} opened from {}", endpoint, state);
+            } else {
+                log.info("Circuit for {} {} -> {}", endpoint, state, to);
+            }
+            state = to;
+            epoch++;
+            next = count = failures = slow = 0;
+            probesStarted = probesDone = probeFailures = probesSlow = 0;
+            if (to == State.OPEN) {
+                openedAt = System.nanoTime();
+            }
+        }
+
+        private CircuitOpenException reject(long retryAfterNanos, boolean halfOpen) {
+            rejected.increment();
+            return new CircuitOpenException(endpoint, Math.max(1, Duration.ofNanos(retryAfterNanos).toMillis()),
+                    halfOpen);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.apache.ofbiz.mcp.backend;
+
+/**
+ * Raised without calling the backend while the circuit of an endpoint is
+ * open, see {@link CircuitBreakers}.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String endpoint;
+    private final long retryAfterMs;
+    private final boolean halfOpen;
+
+    public CircuitOpenException(String endpoint, long retryAfterMs, boolean halfOpen) {
+        super("Backend endpoint " + endpoint + " is unavailable, retry in " + retryAfterMs + " ms");
+        this.endpoint = endpoint;
+        this.retryAfterMs = retryAfterMs;
+        this.halfOpen = halfOpen;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /** Time until the circuit lets a probe through. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * True when the circuit is probing the backend and this call was one
+     * more than the probes it lets through; calls that were let through may
+     * still succeed.
+     */
+    public boolean isHalfOpen() {
+        return halfOpen;
+    }
+}
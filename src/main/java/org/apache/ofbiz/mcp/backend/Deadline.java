@@ -0,0 +1,43 @@
+package org.apache.ofbiz.mcp.backend;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+
+/**
+ * End-to-end deadline of a tool call, carried in the Reactor context so
+ * every backend call the tool makes, however deep in its pipeline, stops
+ * waiting once it has passed.
+ */
+public final class Deadline {
+
+    private static final Class<Deadline> KEY = Deadline.class;
+
+    private Deadline() {
+    }
+
+    /** Context entry setting the deadline to {@code timeout} from now. */
+    public static Context after(Duration timeout) {
+        return Context.of(KEY, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Fails {@code call} with {@link DeadlineExceededException} if the
+     * subscriber's deadline passes first, or at once if it already has.
+     * Without a deadline in the context {@code call} is returned as is.
+     */
+    public static <T> Mono<T> bound(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Long deadline = context.getOrDefault(KEY, null);
+            if (deadline == null) {
+                return call;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(new DeadlineExceededException());
+            }
+            return call.timeout(Duration.ofNanos(remaining), Mono.error(DeadlineExceededException::new));
+        });
+    }
+}
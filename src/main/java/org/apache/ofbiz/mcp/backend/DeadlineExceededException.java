@@ -0,0 +1,12 @@
+package org.apache.ofbiz.mcp.backend;
+
+/**
+ * Raised when a backend call is still pending, or not yet started, at the
+ * deadline of the tool call it belongs to, see {@link Deadline}.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("timed out");
+    }
+}
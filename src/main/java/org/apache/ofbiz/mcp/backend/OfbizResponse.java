@@ -0,0 +1,8 @@
+package org.apache.ofbiz.mcp.backend;
+
+/**
+ * Envelope of an OFBiz REST response. Fields a caller does not model in
+ * {@code T} are skipped while decoding rather than kept in a tree.
+ */
+public record OfbizResponse<T>(Integer statusCode, String statusDescription, T data) {
+}
@@ -0,0 +1,81 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets concurrent identical backend reads share one call.
+ *
+ * A read joins the call already in flight for the same method, URI,
+ * headers, auth identity and decoding variant, and receives the same decoded
+ * result. The entry is dropped as soon as that call terminates, so nothing
+ * is served from here once it has completed; caching beyond that is the
+ * job of {@link BackendResponseCache}. The shared call is cancelled only
+ * when every caller waiting on it has cancelled.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final Map<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Subscribes to {@code loader}, or to the identical read already in
+     * flight. {@code identity} is the credential the call is made with, so
+     * callers never see a result fetched on someone else's behalf.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> join(BackendRequest request, String variant, String identity, Mono<T> loader) {
+        Key key = new Key(request.method(), request.path(), request.uriVariables(), request.queryParams(),
+                request.headers(), identity, variant);
+        return Mono.defer(() -> {
+            Mono<?> existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return (Mono<T>) existing;
+            }
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> shared = loader
+                    .doFinally(signal -> inFlight.remove(key, self.get()))
+                    .flux()
+                    .replay(1)
+                    .refCount()
+                    .singleOrEmpty();
+            self.set(shared);
+            existing = inFlight.putIfAbsent(key, shared);
+            if (existing != null) {
+                coalesced.increment();
+                return (Mono<T>) existing;
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * Stops new reads of {@code path} from joining calls that started before
+     * a write to it.
+     */
+    public void forget(String path) {
+        inFlight.keySet().removeIf(key -> key.path().equals(path));
+    }
+
+    /** Reads that were served by another caller's call. */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private record Key(HttpMethod method, String path, Map<String, ?> uriVariables, Map<String, ?> queryParams,
+            HttpHeaders headers, String identity, String variant) {
+    }
+}
@@ -0,0 +1,245 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries and hedging for backend calls, bounded by a retry budget.
+ *
+ * Idempotent calls (GET, HEAD, PUT, DELETE) that are still running the
+ * BACKEND_HEDGE_PERCENTILE latency of their endpoint after the
+ * {@link AdaptiveConcurrencyLimiter} admitted them get a backup request, and
+ * whichever answers first wins. Latencies are measured from admission too,
+ * so time queued behind our own limit neither inflates nor triggers hedges. Failed calls are retried with jittered
+ * exponential backoff, up to BACKEND_RETRY_MAX_ATTEMPTS attempts, when the
+ * failure says nothing reached the backend or that it was briefly
+ * unavailable (502, 503, 504, 429). POSTs carry a fresh idempotency key,
+ * the same on every attempt. They are only retried when the connection was
+ * never made, unless BACKEND_RETRY_NON_IDEMPOTENT says the backend
+ * deduplicates on that key.
+ *
+ * Every retry and hedge spends one token from a budget that earns
+ * BACKEND_RETRY_BUDGET_RATIO tokens per call plus
+ * BACKEND_RETRY_BUDGET_MIN_PER_SECOND tokens per second. Once the backend
+ * is failing across the board the budget runs dry, so retries add at most
+ * that fraction of extra load instead of multiplying it. Hedges are also
+ * skipped while calls are queueing in the {@link AdaptiveConcurrencyLimiter}.
+ */
+@Component
+public class RetryPolicy {
+
+    private static final Set<HttpMethod> IDEMPOTENT = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.PUT,
+            HttpMethod.DELETE, HttpMethod.OPTIONS);
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 502, 503, 504);
+    private static final double JITTER = 0.5;
+    private static final double MAX_BUDGET = 100;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final boolean retryNonIdempotent;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayNanos;
+    private final String idempotencyKeyHeader;
+    private final RetryBudget budget;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+
+    public RetryPolicy(AppConfig appConfig, AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+        this.maxAttempts = Math.max(1, appConfig.getBackendRetryMaxAttempts());
+        this.backoff = Duration.ofMillis(Math.max(1, appConfig.getBackendRetryBackoffMs()));
+        this.retryNonIdempotent = appConfig.isBackendRetryNonIdempotent();
+        this.hedgePercentile = appConfig.getBackendHedgePercentile();
+        this.hedgeMinDelayNanos = Duration.ofMillis(appConfig.getBackendHedgeMinDelayMs()).toNanos();
+        this.idempotencyKeyHeader = appConfig.getBackendIdempotencyKeyHeader();
+        this.budget = new RetryBudget(appConfig.getBackendRetryBudgetRatio(),
+                appConfig.getBackendRetryBudgetMinPerSecond());
+    }
+
+    /**
+     * Header that carries the idempotency key of a {@code method} call, or
+     * null if such calls need none.
+     */
+    public String idempotencyKeyHeader(HttpMethod method) {
+        return IDEMPOTENT.contains(method) || idempotencyKeyHeader == null || idempotencyKeyHeader.isEmpty()
+                ? null : idempotencyKeyHeader;
+    }
+
+    /**
+     * Runs {@code attempt}, subscribing to it again for hedges and retries.
+     * {@code endpoint} groups calls whose latency is tracked together.
+     */
+    public <T> Mono<T> apply(HttpMethod method, String endpoint, Mono<T> attempt) {
+        boolean idempotent = IDEMPOTENT.contains(method);
+        LatencyWindow window = latencies.computeIfAbsent(endpoint, e -> new LatencyWindow());
+        Mono<T> hedged = idempotent && hedgePercentile > 0 ? hedge(attempt, window)
+                : Mono.defer(() -> timed(attempt, window, new Admission()));
+        Mono<T> retried = maxAttempts <= 1 ? hedged : hedged.retryWhen(Retry.backoff(maxAttempts - 1, backoff)
+                .jitter(JITTER)
+                .filter(error -> isRetryable(method, idempotent, error))
+                .doBeforeRetryAsync(signal -> spend(retries) ? Mono.empty() : Mono.error(signal.failure()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        return Mono.defer(() -> {
+            budget.deposit();
+            return retried;
+        });
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /** Retries and hedges that were not sent because the budget was spent. */
+    public long getDenied() {
+        return denied.sum();
+    }
+
+    private <T> Mono<T> hedge(Mono<T> attempt, LatencyWindow window) {
+        return Mono.defer(() -> {
+            Admission admission = new Admission();
+            Mono<T> primary = timed(attempt, window, admission);
+            long delay = window.percentile(hedgePercentile);
+            if (delay < 0) {
+                return primary;
+            }
+            // Only a successful backup may win: one failing fast, say rejected by a half-open
+            // circuit, must not fail the call while the original may still succeed
+            Mono<T> backup = admission.whenAdmitted()
+                    .then(Mono.delay(Duration.ofNanos(Math.max(delay, hedgeMinDelayNanos))))
+                    .then(Mono.defer(() -> limiter.getQueued() == 0 && spend(hedges)
+                            ? timed(attempt, window, new Admission()).onErrorResume(e -> Mono.never())
+                            : Mono.never()));
+            return Mono.firstWithSignal(primary, backup);
+        });
+    }
+
+    /** {@code attempt}, recording its latency from admission when it succeeds. */
+    private static <T> Mono<T> timed(Mono<T> attempt, LatencyWindow window, Admission admission) {
+        return attempt
+                .doOnSuccess(value -> {
+                    if (admission.isAdmitted()) {
+                        window.record(admission.elapsedNanos());
+                    }
+                })
+                .contextWrite(admission.context());
+    }
+
+    private boolean spend(LongAdder counter) {
+        if (!budget.tryWithdraw()) {
+            denied.increment();
+            return false;
+        }
+        counter.increment();
+        return true;
+    }
+
+    private boolean isRetryable(HttpMethod method, boolean idempotent, Throwable error) {
+        boolean safe = idempotent || (retryNonIdempotent && idempotencyKeyHeader(method) != null);
+        if (error instanceof WebClientRequestException e) {
+            return safe || neverConnected(e);
+        }
+        if (error instanceof WebClientResponseException e) {
+            return safe && RETRYABLE_STATUSES.contains(e.getStatusCode().value());
+        }
+        return false;
+    }
+
+    private static boolean neverConnected(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Token bucket refilled by calls made and by time. */
+    private static final class RetryBudget {
+        private final double ratio;
+        private final double perNanos;
+        private double balance;
+        private long lastRefillNanos = System.nanoTime();
+
+        RetryBudget(double ratio, double minPerSecond) {
+            this.ratio = Math.max(0, ratio);
+            this.perNanos = Math.max(0, minPerSecond) / 1e9;
+            this.balance = Math.min(MAX_BUDGET, Math.max(0, minPerSecond));
+        }
+
+        synchronized void deposit() {
+            refill();
+            balance = Math.min(MAX_BUDGET, balance + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            refill();
+            if (balance < 1) {
+                return false;
+            }
+            balance -= 1;
+            return true;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            balance = Math.min(MAX_BUDGET, balance + (now - lastRefillNanos) * perNanos);
+            lastRefillNanos = now;
+        }
+    }
+
+    /** Latencies of the last successful calls to one endpoint. */
+    private static final class LatencyWindow {
+        private static final int SIZE = 256;
+        private static final int MIN_SAMPLES = 20;
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final long[] samples = new long[SIZE];
+        private int count;
+        private int next;
+        private double cachedPercentile;
+        private long cachedValue = -1;
+        private int sinceCompute;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SIZE;
+            count = Math.min(SIZE, count + 1);
+            sinceCompute++;
+        }
+
+        /** Latency at {@code p}, or -1 while there are too few samples. */
+        synchronized long percentile(double p) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            if (cachedValue < 0 || sinceCompute >= RECOMPUTE_EVERY || cachedPercentile != p) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                cachedValue = sorted[(int) Math.max(0, Math.min(count - 1, Math.ceil(p * count) - 1))];
+                cachedPercentile = p;
+                sinceCompute = 0;
+            }
+            return cachedValue;
+        }
+    }
+}
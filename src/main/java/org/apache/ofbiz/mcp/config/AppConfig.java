@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.util.List;
+import java.util.Map;
+
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class AppConfig {
@@ -22,12 +25,157 @@ public class AppConfig {
     @JsonProperty("BACKEND_API_BASE")
     private String backendApiBase;
 
+    /** Base URLs of the OFBiz nodes to balance calls over; empty sends every call to BACKEND_API_BASE. */
+    @JsonProperty("BACKEND_API_NODES")
+    private List<String> backendApiNodes = List.of();
+
+    /** Path each node is asked for; any status below 500 counts as healthy. */
+    @JsonProperty("BACKEND_HEALTH_CHECK_PATH")
+    private String backendHealthCheckPath = "/";
+
+    /** 0 disables active health checks; they only run with more than one node. */
+    @JsonProperty("BACKEND_HEALTH_CHECK_INTERVAL_MS")
+    private long backendHealthCheckIntervalMs = 5000;
+
+    @JsonProperty("BACKEND_HEALTH_CHECK_TIMEOUT_MS")
+    private long backendHealthCheckTimeoutMs = 2000;
+
+    /** Failed calls in a row after which a node is ejected; 0 disables ejection. */
+    @JsonProperty("BACKEND_OUTLIER_CONSECUTIVE_FAILURES")
+    private int backendOutlierConsecutiveFailures = 5;
+
+    /** Length of a first ejection; each further one in a row lasts that much longer. */
+    @JsonProperty("BACKEND_OUTLIER_EJECTION_MS")
+    private long backendOutlierEjectionMs = 30000;
+
+    @JsonProperty("BACKEND_OUTLIER_MAX_EJECTED_PERCENT")
+    private int backendOutlierMaxEjectedPercent = 50;
+
     @JsonProperty("BACKEND_USER_AGENT")
     private String backendUserAgent;
 
+    @JsonProperty("BACKEND_POOL_MAX_CONNECTIONS")
+    private int backendPoolMaxConnections = 200;
+
+    @JsonProperty("BACKEND_POOL_PENDING_ACQUIRE_MAX")
+    private int backendPoolPendingAcquireMax = 1000;
+
+    @JsonProperty("BACKEND_POOL_PENDING_ACQUIRE_TIMEOUT_MS")
+    private long backendPoolPendingAcquireTimeoutMs = 45000;
+
+    @JsonProperty("BACKEND_POOL_MAX_IDLE_TIME_MS")
+    private long backendPoolMaxIdleTimeMs = 30000;
+
+    @JsonProperty("BACKEND_POOL_MAX_LIFE_TIME_MS")
+    private long backendPoolMaxLifeTimeMs = 300000;
+
+    @JsonProperty("BACKEND_POOL_EVICT_INTERVAL_MS")
+    private long backendPoolEvictIntervalMs = 30000;
+
+    @JsonProperty("BACKEND_KEEP_ALIVE")
+    private boolean backendKeepAlive = true;
+
+    @JsonProperty("BACKEND_HTTP2")
+    private boolean backendHttp2 = false;
+
+    @JsonProperty("BACKEND_LIMIT_INITIAL")
+    private int backendLimitInitial = 20;
+
+    @JsonProperty("BACKEND_LIMIT_MIN")
+    private int backendLimitMin = 1;
+
+    @JsonProperty("BACKEND_LIMIT_MAX")
+    private int backendLimitMax = 200;
+
+    @JsonProperty("BACKEND_LIMIT_QUEUE_MAX")
+    private int backendLimitQueueMax = 10000;
+
+    @JsonProperty("BACKEND_LIMIT_BACKOFF_RATIO")
+    private double backendLimitBackoffRatio = 0.9;
+
+    @JsonProperty("BACKEND_LIMIT_LATENCY_TOLERANCE")
+    private double backendLimitLatencyTolerance = 2.0;
+
+    /** Attempts per backend call, the first one included; 1 disables retries. */
+    @JsonProperty("BACKEND_RETRY_MAX_ATTEMPTS")
+    private int backendRetryMaxAttempts = 3;
+
+    @JsonProperty("BACKEND_RETRY_BACKOFF_MS")
+    private long backendRetryBackoffMs = 50;
+
+    /** Retries and hedges earned per backend call. */
+    @JsonProperty("BACKEND_RETRY_BUDGET_RATIO")
+    private double backendRetryBudgetRatio = 0.1;
+
+    @JsonProperty("BACKEND_RETRY_BUDGET_MIN_PER_SECOND")
+    private double backendRetryBudgetMinPerSecond = 10;
+
+    /** Retry POSTs like idempotent calls; only safe if the backend deduplicates on the idempotency key. */
+    @JsonProperty("BACKEND_RETRY_NON_IDEMPOTENT")
+    private boolean backendRetryNonIdempotent = false;
+
+    @JsonProperty("BACKEND_IDEMPOTENCY_KEY_HEADER")
+    private String backendIdempotencyKeyHeader = "Idempotency-Key";
+
+    /** Latency percentile of an endpoint after which idempotent calls are hedged; 0 disables hedging. */
+    @JsonProperty("BACKEND_HEDGE_PERCENTILE")
+    private double backendHedgePercentile = 0.95;
+
+    @JsonProperty("BACKEND_HEDGE_MIN_DELAY_MS")
+    private long backendHedgeMinDelayMs = 10;
+
+    /** Calls per endpoint whose outcome decides whether its circuit opens; 0 disables circuit breaking. */
+    @JsonProperty("BACKEND_CIRCUIT_WINDOW_SIZE")
+    private int backendCircuitWindowSize = 50;
+
+    @JsonProperty("BACKEND_CIRCUIT_MIN_CALLS")
+    private int backendCircuitMinCalls = 20;
+
+    @JsonProperty("BACKEND_CIRCUIT_FAILURE_RATE")
+    private double backendCircuitFailureRate = 0.5;
+
+    @JsonProperty("BACKEND_CIRCUIT_SLOW_CALL_MS")
+    private long backendCircuitSlowCallMs = 5000;
+
+    @JsonProperty("BACKEND_CIRCUIT_SLOW_CALL_RATE")
+    private double backendCircuitSlowCallRate = 0.8;
+
+    @JsonProperty("BACKEND_CIRCUIT_OPEN_MS")
+    private long backendCircuitOpenMs = 10000;
+
+    @JsonProperty("BACKEND_CIRCUIT_HALF_OPEN_PROBES")
+    private int backendCircuitHalfOpenProbes = 5;
+
+    @JsonProperty("BACKEND_CACHE_MAX_WEIGHT")
+    private long backendCacheMaxWeight = 100000;
+
+    /** Time-to-live of cached GET responses per backend path; paths not listed are not cached. */
+    @JsonProperty("BACKEND_CACHE_TTL_MS")
+    private Map<String, Long> backendCacheTtlMs = Map.of(
+            "/rest/example-rest/example", 2000L,
+            "/rest/services/findProductById", 30000L);
+
+    /** OpenAPI document whose operations are exposed as tools, in addition to specs in the tools folder. */
+    @JsonProperty("OPENAPI_SPEC_PATH")
+    private String openApiSpecPath = "openapi.json";
+
     @JsonProperty("BACKEND_ACCESS_TOKEN")
     private String backendAccessToken;
 
+    /** Token endpoint; defaults to BACKEND_API_BASE + /rest/auth/token. */
+    @JsonProperty("BACKEND_API_AUTH")
+    private String backendApiAuth;
+
+    /** Credentials for renewing the backend token; the environment variables of the same name are used if unset. */
+    @JsonProperty("BACKEND_AUTH_USER")
+    private String backendAuthUser;
+
+    @JsonProperty("BACKEND_AUTH_PASS")
+    private String backendAuthPass;
+
+    @JsonProperty("BACKEND_TOKEN_REFRESH_SKEW_MS")
+    private long backendTokenRefreshSkewMs = 60000;
+
     @JsonProperty("AUTHZ_SERVER_BASE_URL")
     private String authzServerBaseUrl;
 
@@ -40,6 +188,103 @@ public class AppConfig {
     @JsonProperty("RATE_LIMIT_MAX_REQUESTS")
     private int rateLimitMaxRequests = 100;
 
+    @JsonProperty("RATE_LIMIT_MAX_CLIENTS")
+    private int rateLimitMaxClients = 100000;
+
+    @JsonProperty("BATCH_MAX_PARALLELISM")
+    private int batchMaxParallelism = 8;
+
+    @JsonProperty("BATCH_MAX_SIZE")
+    private int batchMaxSize = 100;
+
+    @JsonProperty("BACKEND_CONNECT_TIMEOUT_MS")
+    private int backendConnectTimeoutMs = 5000;
+
+    /** Time to wait for a backend response after sending a request; 0 waits forever. */
+    @JsonProperty("BACKEND_RESPONSE_TIMEOUT_MS")
+    private long backendResponseTimeoutMs = 30000;
+
+    /** Largest backend response body decoded in memory; streamed listings are not limited. */
+    @JsonProperty("BACKEND_MAX_RESPONSE_BYTES")
+    private int backendMaxResponseBytes = 4 * 1024 * 1024;
+
+    /** Calls of one tool running at once, unless TOOL_CONCURRENCY_OVERRIDES says otherwise for it. */
+    @JsonProperty("TOOL_MAX_CONCURRENCY")
+    private int toolMaxConcurrency = 16;
+
+    /** Calls of one tool waiting for a slot; further calls are rejected. */
+    @JsonProperty("TOOL_MAX_QUEUE")
+    private int toolMaxQueue = 64;
+
+    @JsonProperty("TOOL_CONCURRENCY_OVERRIDES")
+    private Map<String, Integer> toolConcurrencyOverrides = Map.of();
+
+    /**
+     * Deadline of a tools/call that does not set _meta.timeoutMs, unless
+     * TOOL_TIMEOUTS_MS has one for the tool; 0 for none.
+     */
+    @JsonProperty("TOOL_TIMEOUT_MS")
+    private long toolTimeoutMs = 60000;
+
+    @JsonProperty("TOOL_TIMEOUTS_MS")
+    private Map<String, Long> toolTimeoutsMs = Map.of();
+
+    /** Upper bound for a deadline requested through _meta.timeoutMs. */
+    @JsonProperty("TOOL_MAX_TIMEOUT_MS")
+    private long toolMaxTimeoutMs = 300000;
+
+    /** Share of queued tool and backend capacity per client key (bearer token or address), relative to others. */
+    @JsonProperty("FAIR_SHARE_WEIGHTS")
+    private Map<String, Integer> fairShareWeights = Map.of();
+
+    @JsonProperty("FAIR_SHARE_DEFAULT_WEIGHT")
+    private int fairShareDefaultWeight = 1;
+
+    /** "interactive" or "bulk" per client key; bulk work waits while interactive work is queued. */
+    @JsonProperty("FAIR_SHARE_PRIORITIES")
+    private Map<String, String> fairSharePriorities = Map.of();
+
+    /** Queue each SSE session of a client separately rather than the client as a whole. */
+    @JsonProperty("FAIR_SHARE_BY_SESSION")
+    private boolean fairShareBySession = false;
+
+    @JsonProperty("MCP_SSE_MAX_SESSIONS")
+    private int sseMaxSessions = 1000;
+
+    /** Opening one more replaces the client's oldest stream. */
+    @JsonProperty("MCP_SSE_MAX_SESSIONS_PER_CLIENT")
+    private int sseMaxSessionsPerClient = 8;
+
+    /**
+     * How long a JSON response may be pending before, and then how often, a
+     * space is written to find out whether its client is still there; 0 to
+     * never probe.
+     */
+    @JsonProperty("MCP_DISCONNECT_PROBE_MS")
+    private long disconnectProbeMs = 5000;
+
+    @JsonProperty("MCP_SSE_HEARTBEAT_MS")
+    private long sseHeartbeatMs = 15000;
+
+    /** Closes a stream whose session sent no request for this long; 0 keeps it open. */
+    @JsonProperty("MCP_SSE_IDLE_TIMEOUT_MS")
+    private long sseIdleTimeoutMs = 1800000;
+
+    /** Directory to journal every POST /mcp request to; empty turns the journal off. */
+    @JsonProperty("MCP_JOURNAL_DIR")
+    private String journalDir = "";
+
+    /** Entries waiting to be written; requests arriving while it is full are not journaled. */
+    @JsonProperty("MCP_JOURNAL_BUFFER_SIZE")
+    private int journalBufferSize = 16384;
+
+    @JsonProperty("MCP_JOURNAL_MAX_FILE_BYTES")
+    private long journalMaxFileBytes = 64L * 1024 * 1024;
+
+    /** Journal files kept; the oldest is deleted when a new one is started. */
+    @JsonProperty("MCP_JOURNAL_MAX_FILES")
+    private int journalMaxFiles = 10;
+
     @JsonProperty("MCP_SERVER_CORS_ORIGINS")
     private String corsOrigins;
 }
@@ -1,29 +1,113 @@
 package org.apache.ofbiz.mcp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.apache.ofbiz.mcp.backend.BackendNodes;
+import org.apache.ofbiz.mcp.backend.BackendPoolMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import javax.net.ssl.SSLException;
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
-        @Bean
-        public WebClient.Builder webClientBuilder() throws SSLException {
-                SslContext sslContext = SslContextBuilder.forClient()
-                                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+        public static final String BACKEND_POOL_NAME = "ofbiz-backend";
+
+        /**
+         * Connection pool shared by every call to the OFBiz backend, sized by the
+         * BACKEND_POOL_* settings.
+         */
+        @Bean(destroyMethod = "dispose")
+        public ConnectionProvider backendConnectionProvider(AppConfig appConfig, BackendPoolMetrics poolMetrics) {
+                return ConnectionProvider.builder(BACKEND_POOL_NAME)
+                                .maxConnections(appConfig.getBackendPoolMaxConnections())
+                                .pendingAcquireMaxCount(appConfig.getBackendPoolPendingAcquireMax())
+                                .pendingAcquireTimeout(Duration.ofMillis(appConfig.getBackendPoolPendingAcquireTimeoutMs()))
+                                .maxIdleTime(Duration.ofMillis(appConfig.getBackendPoolMaxIdleTimeMs()))
+                                .maxLifeTime(Duration.ofMillis(appConfig.getBackendPoolMaxLifeTimeMs()))
+                                .evictInBackground(Duration.ofMillis(appConfig.getBackendPoolEvictIntervalMs()))
+                                .metrics(true, () -> poolMetrics)
                                 .build();
+        }
 
-                HttpClient httpClient = HttpClient.create()
-                                .secure(t -> t.sslContext(sslContext));
+        /**
+         * Responses are decoded from the connection's buffers with the application's
+         * ObjectMapper; a body buffered in memory may not exceed
+         * BACKEND_MAX_RESPONSE_BYTES. Streamed bodies are not limited.
+         */
+        @Bean
+        public WebClient.Builder webClientBuilder(AppConfig appConfig, ConnectionProvider backendConnectionProvider,
+                        ObjectMapper mapper) throws SSLException {
+                HttpClient httpClient = HttpClient.create(backendConnectionProvider)
+                                .keepAlive(appConfig.isBackendKeepAlive())
+                                .option(ChannelOption.SO_KEEPALIVE, appConfig.isBackendKeepAlive())
+                                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, appConfig.getBackendConnectTimeoutMs());
+                if (appConfig.getBackendResponseTimeoutMs() > 0) {
+                        httpClient = httpClient
+                                        .responseTimeout(Duration.ofMillis(appConfig.getBackendResponseTimeoutMs()));
+                }
+
+                if (appConfig.isBackendHttp2()) {
+                        Http2SslContextSpec sslSpec = Http2SslContextSpec.forClient()
+                                        .configure(b -> b.trustManager(InsecureTrustManagerFactory.INSTANCE));
+                        httpClient = httpClient
+                                        .protocol(HttpProtocol.H2, HttpProtocol.H2C, HttpProtocol.HTTP11)
+                                        .secure(t -> t.sslContext(sslSpec));
+                } else {
+                        SslContext sslContext = SslContextBuilder.forClient()
+                                        .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                                        .build();
+                        httpClient = httpClient.secure(t -> t.sslContext(sslContext));
+                }
 
                 return WebClient.builder()
-                                .clientConnector(new ReactorClientHttpConnector(httpClient));
+                                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                                .codecs(codecs -> {
+                                        codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+                                        codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+                                        codecs.defaultCodecs().maxInMemorySize(appConfig.getBackendMaxResponseBytes());
+                                });
+        }
+
+        /**
+         * The client for calls that are not balanced over the backend nodes, such as
+         * token requests; it resolves relative URIs against the first node.
+         */
+        @Bean
+        public WebClient backendWebClient(WebClient.Builder webClientBuilder, AppConfig appConfig) {
+                return backendWebClient(webClientBuilder, appConfig, BackendNodes.urls(appConfig).get(0));
+        }
+
+        /**
+         * The OFBiz nodes tool calls are balanced over, each with its own client on
+         * the shared connection provider. Tools go through these instead of building
+         * their own WebClient.
+         */
+        @Bean
+        public BackendNodes backendNodes(WebClient.Builder webClientBuilder, AppConfig appConfig) {
+                return new BackendNodes(appConfig, url -> backendWebClient(webClientBuilder, appConfig, url));
+        }
+
+        private static WebClient backendWebClient(WebClient.Builder webClientBuilder, AppConfig appConfig,
+                        String baseUrl) {
+                WebClient.Builder builder = webClientBuilder.clone().baseUrl(baseUrl);
+                if (appConfig.getBackendUserAgent() != null) {
+                        builder.defaultHeader(HttpHeaders.USER_AGENT, appConfig.getBackendUserAgent());
+                }
+                return builder.build();
         }
 }
@@ -0,0 +1,160 @@
+package org.apache.ofbiz.mcp.controller;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels a JSON response, and the tool calls it waits for, when its client
+ * disconnects.
+ *
+ * Spring MVC subscribes to a returned Mono for a DeferredResult that it
+ * only cancels on an async timeout, and there is none. The container reports
+ * errors of the async request, which end the response here too, but Tomcat
+ * does not watch an async connection it is not writing to, so a client that
+ * goes away while its call runs is only noticed on a write. A response still
+ * pending after MCP_DISCONNECT_PROBE_MS therefore gets a space written and
+ * flushed every MCP_DISCONNECT_PROBE_MS, leading whitespace being valid JSON;
+ * once the connection is gone a write fails and the response is cancelled.
+ * The first probe commits the status and headers, which are final by then.
+ * Event streams write their own events and are left alone.
+ */
+@Component
+public class DisconnectWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(DisconnectWatcher.class);
+    private static final String INTERCEPTOR = DisconnectWatcher.class.getName();
+
+    private final long probeMs;
+    private final long probeNanos;
+    private final Set<Watch> pending = ConcurrentHashMap.newKeySet();
+    private volatile Disposable sweep;
+
+    public DisconnectWatcher(AppConfig appConfig) {
+        this.probeMs = appConfig.getDisconnectProbeMs();
+        this.probeNanos = TimeUnit.MILLISECONDS.toNanos(probeMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (probeMs > 0) {
+            // A probe blocks while a slow client's socket buffer is full
+            sweep = Schedulers.boundedElastic().schedulePeriodically(this::probe,
+                    probeMs, probeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable d = sweep;
+        if (d != null) {
+            d.dispose();
+        }
+    }
+
+    /** {@code response}, cancelled if the client of {@code httpRequest} disconnects before it is sent. */
+    public Publisher<?> watch(Publisher<?> response, HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        if (!(response instanceof Mono<?> mono)) {
+            return response;
+        }
+        Watch watch = new Watch(httpResponse);
+        WebAsyncUtils.getAsyncManager(httpRequest).registerDeferredResultInterceptor(INTERCEPTOR, watch);
+        // Probes stop before the result is handed to Spring, which writes it on another thread
+        return mono.takeUntilOther(watch.gone.asMono())
+                .doOnSuccess(value -> watch.finish())
+                .doOnError(error -> watch.finish())
+                .doFinally(signal -> watch.finish());
+    }
+
+    private void probe() {
+        long now = System.nanoTime();
+        for (Watch watch : pending) {
+            if (now - watch.sinceNanos >= probeNanos) {
+                watch.probe();
+            }
+        }
+    }
+
+    private final class Watch implements DeferredResultProcessingInterceptor {
+        final HttpServletResponse httpResponse;
+        final Sinks.One<Boolean> gone = Sinks.one();
+        volatile long sinceNanos;
+        boolean finished;
+
+        Watch(HttpServletResponse httpResponse) {
+            this.httpResponse = httpResponse;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, DeferredResult<T> deferredResult) {
+            // Called once the async request has started, so the response may be written from other threads
+            synchronized (this) {
+                if (!finished && probeMs > 0) {
+                    sinceNanos = System.nanoTime();
+                    pending.add(this);
+                }
+            }
+        }
+
+        @Override
+        public <T> boolean handleError(NativeWebRequest request, DeferredResult<T> deferredResult, Throwable t) {
+            disconnected(t);
+            return true;
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+            disconnected(null);
+        }
+
+        synchronized void probe() {
+            if (finished) {
+                return;
+            }
+            try {
+                if (!httpResponse.isCommitted()) {
+                    httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                }
+                ServletOutputStream out = httpResponse.getOutputStream();
+                out.write(' ');
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                disconnected(e);
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            pending.remove(this);
+        }
+
+        void disconnected(Throwable cause) {
+            finish();
+            if (gone.tryEmitValue(Boolean.TRUE).isSuccess() && cause != null) {
+                log.debug("Client disconnected before its response was sent: {}", cause.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.apache.ofbiz.mcp.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tool calls in progress, by caller, session and JSON-RPC request id, so
+ * that a notifications/cancelled from the same caller in the same session,
+ * or the end of that session, can stop them. Clients without a token that
+ * share an address are one caller, so the session keeps their ids apart;
+ * only a session the caller has open counts, the id being client supplied.
+ * A call whose id is already in progress is run but cannot be cancelled:
+ * the id names the earlier call.
+ *
+ * Cancelling disposes the call's pipeline: pending backend requests are
+ * cancelled, their connections closed and their limiter and bulkhead slots
+ * freed, and no response is sent for the call.
+ */
+@Component
+public class InFlightCalls {
+
+    private static final Logger log = LoggerFactory.getLogger(InFlightCalls.class);
+
+    private final Map<Key, Entry> calls = new ConcurrentHashMap<>();
+    private final LongAdder cancelled = new LongAdder();
+
+    /**
+     * Registers {@code call} for as long as it is subscribed. It completes
+     * empty if cancelled. Calls without an id, or with the id of a call in
+     * progress, cannot be cancelled and are returned as is.
+     *
+     * @param sessionId the open session of {@code caller} the call was made in, or null
+     */
+    public <T> Mono<T> track(String caller, String sessionId, Object requestId, Mono<T> call) {
+        if (requestId == null) {
+            return call;
+        }
+        Key key = Key.of(caller, sessionId, requestId);
+        return Mono.defer(() -> {
+            Entry entry = new Entry(sessionId);
+            if (calls.putIfAbsent(key, entry) != null) {
+                log.debug("Call {} of {} is already in progress, the new one cannot be cancelled",
+                        requestId, caller);
+                return call;
+            }
+            return call.takeUntilOther(entry.cancel.asMono())
+                    .doFinally(signal -> calls.remove(key, entry));
+        });
+    }
+
+    /**
+     * Cancels the call {@code requestId} of {@code caller} in {@code sessionId},
+     * an open session of the caller or null; false if it is not in progress.
+     */
+    public boolean cancel(String caller, String sessionId, Object requestId, String reason) {
+        if (requestId == null) {
+            return false;
+        }
+        Entry entry = calls.remove(Key.of(caller, sessionId, requestId));
+        if (entry == null) {
+            return false;
+        }
+        log.debug("Call {} of {} cancelled: {}", requestId, caller, reason);
+        entry.fire();
+        return true;
+    }
+
+    /** Cancels every call made within {@code sessionId}. */
+    public void cancelSession(String sessionId) {
+        calls.forEach((key, entry) -> {
+            if (sessionId.equals(entry.sessionId) && calls.remove(key, entry)) {
+                log.debug("Call {} of {} cancelled: session {} closed", key.requestId, key.caller, sessionId);
+                entry.fire();
+            }
+        });
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    /**
+     * A JSON-RPC id keeps its JSON type: the number 1 and the string "1" are
+     * different calls. Integers compare by value whichever Java type Jackson
+     * gave them.
+     */
+    private record Key(String caller, String sessionId, Object requestId) {
+        static Key of(String caller, String sessionId, Object requestId) {
+            if (requestId instanceof Integer || requestId instanceof Long || requestId instanceof Short
+                    || requestId instanceof Byte) {
+                return new Key(caller, sessionId, ((Number) requestId).longValue());
+            }
+            return new Key(caller, sessionId, requestId);
+        }
+    }
+
+    private final class Entry {
+        final String sessionId;
+        final Sinks.One<Boolean> cancel = Sinks.one();
+
+        Entry(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        void fire() {
+            if (cancel.tryEmitValue(Boolean.TRUE).isSuccess()) {
+                cancelled.increment();
+            }
+        }
+    }
+}
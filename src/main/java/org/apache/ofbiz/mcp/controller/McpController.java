@@ -1,55 +1,266 @@
 package org.apache.ofbiz.mcp.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ofbiz.mcp.backend.CircuitOpenException;
+import org.apache.ofbiz.mcp.backend.Deadline;
+import org.apache.ofbiz.mcp.backend.DeadlineExceededException;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.journal.RequestJournal;
+import org.apache.ofbiz.mcp.metrics.McpMetrics;
+import org.apache.ofbiz.mcp.model.JsonRpcNotification;
 import org.apache.ofbiz.mcp.model.JsonRpcRequest;
 import org.apache.ofbiz.mcp.model.JsonRpcResponse;
+import org.apache.ofbiz.mcp.model.PrecomputedJson;
+import org.apache.ofbiz.mcp.ratelimit.SlidingWindowRateLimiter;
+import org.apache.ofbiz.mcp.scheduling.FairShares;
+import org.apache.ofbiz.mcp.tools.ToolBulkheads;
+import org.apache.ofbiz.mcp.tools.ToolContext;
 import org.apache.ofbiz.mcp.tools.ToolHandler;
+import org.apache.ofbiz.mcp.tools.ToolRegistry;
+import org.apache.ofbiz.mcp.tools.ToolRejectedException;
+import org.apache.ofbiz.mcp.tools.ToolsChangedEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/mcp")
 public class McpController {
 
-    private final Map<String, ToolHandler> tools;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int INTERNAL_ERROR = -32603;
+    private static final int REQUEST_TIMEOUT = -32001;
+    private static final int RATE_LIMITED = -32029;
+    private static final int BACKEND_UNAVAILABLE = -32003;
+    private static final int TOOL_BUSY = -32004;
+    private static final String SESSION_HEADER = "Mcp-Session-Id";
+    // Time past the deadline for a tool to turn the calls that timed out into a partial result
+    private static final Duration RESULT_GRACE = Duration.ofSeconds(1);
+    private static final String TOOLS_LIST_CHANGED = "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/tools/list_changed\"}";
 
-    public McpController(List<ToolHandler> toolHandlers) {
-        this.tools = new ConcurrentHashMap<>();
-        toolHandlers.forEach(t -> tools.put(t.getName(), t));
+    private final ToolRegistry tools;
+    private final ToolBulkheads bulkheads;
+    private final SseSessionRegistry sessions;
+    private final InFlightCalls inFlight;
+    private final DisconnectWatcher disconnects;
+    private final PrecomputedJson initializeResult;
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final ObjectMapper mapper;
+    private final McpMetrics metrics;
+    private final RequestJournal journal;
+    private final FairShares shares;
+    private final int batchParallelism;
+    private final int maxBatchSize;
+    private final long toolTimeoutMs;
+    private final Map<String, Long> toolTimeoutsMs;
+    private final long toolMaxTimeoutMs;
+
+    public McpController(ToolRegistry tools, ToolBulkheads bulkheads, SseSessionRegistry sessions,
+            InFlightCalls inFlight, DisconnectWatcher disconnects, SlidingWindowRateLimiter rateLimiter, ObjectMapper mapper, McpMetrics metrics,
+            RequestJournal journal, FairShares shares, AppConfig appConfig) {
+        this.tools = tools;
+        this.bulkheads = bulkheads;
+        this.sessions = sessions;
+        this.inFlight = inFlight;
+        this.disconnects = disconnects;
+        this.rateLimiter = rateLimiter;
+        this.mapper = mapper;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.shares = shares;
+        this.batchParallelism = Math.max(1, appConfig.getBatchMaxParallelism());
+        this.maxBatchSize = Math.max(1, appConfig.getBatchMaxSize());
+        this.toolTimeoutMs = appConfig.getToolTimeoutMs();
+        this.toolTimeoutsMs = Map.copyOf(appConfig.getToolTimeoutsMs());
+        this.toolMaxTimeoutMs = appConfig.getToolMaxTimeoutMs();
+        this.initializeResult = PrecomputedJson.of(mapper, initializeResult());
     }
 
+    /**
+     * Opens a session stream. Its first event names the endpoint to POST to,
+     * which carries the session id; the id is also sent in the Mcp-Session-Id
+     * header.
+     */
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter handleSse() {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+    public ResponseEntity<SseEmitter> handleSse(HttpServletRequest httpRequest) {
+        SseSessionRegistry.Session session = sessions.open(clientKey(httpRequest));
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header(SESSION_HEADER, session.getId())
+                .body(session.getEmitter());
+    }
+
+    @EventListener
+    public void onToolsChanged(ToolsChangedEvent event) {
+        sessions.broadcast(TOOLS_LIST_CHANGED);
+    }
+
+    /**
+     * Answers with a single JSON response, except for a tools/call that
+     * carries a progressToken from a client accepting text/event-stream:
+     * that call is answered with an event stream of progress notifications
+     * followed by the response. A client that does not accept an event
+     * stream but names an open session gets its progress notifications on
+     * that session's stream instead.
+     *
+     * A JSON response is cancelled, with the tool calls it waits for, when
+     * the client disconnects before it is sent.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Publisher<?> handlePost(@RequestBody JsonNode body, HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        if (!journal.isEnabled()) {
+            return disconnects.watch(handle(body, httpRequest, httpResponse), httpRequest, httpResponse);
+        }
+        long start = System.nanoTime();
+        Publisher<?> response = disconnects.watch(handle(body, httpRequest, httpResponse), httpRequest, httpResponse);
+        // Statuses other than 200 are all set before the response is returned
+        return journal.record(start, body, clientKey(httpRequest), acceptsEventStream(httpRequest),
+                httpResponse.getStatus(), response);
+    }
+
+    private Publisher<?> handle(JsonNode body, HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        if (body.isArray()) {
+            return handleBatch(body, httpRequest, httpResponse);
+        }
+        JsonRpcRequest request;
         try {
-            emitter.send(SseEmitter.event().name("endpoint").data("/mcp")); // Send endpoint URI
+            request = mapper.treeToValue(body, JsonRpcRequest.class);
         } catch (Exception e) {
-            emitter.completeWithError(e);
+            return Mono.just(JsonRpcResponse.error(null, INVALID_REQUEST, "Invalid Request"));
+        }
+        Caller caller = caller(httpRequest);
+        long retryAfterMs = rateLimiter.tryAcquire(caller.key(), 1);
+        if (retryAfterMs > 0) {
+            return Mono.just(rateLimited(request.getId(), retryAfterMs, httpResponse));
+        }
+        sessions.touch(caller.sessionId());
+        if ("tools/list".equals(request.getMethod())) {
+            String etag = tools.toolsList().getEtag();
+            httpResponse.setHeader(HttpHeaders.ETAG, etag);
+            if (etag.equals(httpRequest.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                httpResponse.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return Mono.empty();
+            }
         }
-        return emitter;
+        Object progressToken = progressToken(request);
+        if (progressToken != null && "tools/call".equals(request.getMethod())) {
+            if (acceptsEventStream(httpRequest)) {
+                return streamToolCall(request, progressToken, caller);
+            }
+            // Progress goes to the caller's own stream only, never to a session id it merely named
+            if (sessions.isOpenFor(caller.sessionId(), caller.key())) {
+                ToolContext context = ToolContext.streaming(null, (done, total, message) ->
+                        sessions.send(caller.sessionId(), progress(progressToken, done, total, message)));
+                return metrics.timeRpc(request.getMethod(), callTool(request, context, caller));
+            }
+        }
+        return dispatch(request, caller);
     }
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public JsonRpcResponse handlePost(@RequestBody JsonRpcRequest request) {
+    /**
+     * Runs a tool call whose progress reports, per-item results included,
+     * are sent to the client as they happen. The response is the last event.
+     * The call is cancelled when the stream fails because the client has gone.
+     */
+    private Flux<ServerSentEvent<Object>> streamToolCall(JsonRpcRequest request, Object progressToken,
+            Caller caller) {
+        return Flux.create(sink -> {
+            ToolContext context = ToolContext.streaming(null, (done, total, message) ->
+                    sink.next(event(progress(progressToken, done, total, message))));
+            Disposable call = metrics.timeRpc(request.getMethod(), callTool(request, context, caller))
+                    .contextWrite(sink.contextView())
+                    .subscribe(response -> sink.next(event(response)), sink::error, sink::complete);
+            sink.onDispose(call);
+        });
+    }
+
+    private static JsonRpcNotification progress(Object progressToken, long done, long total, String message) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", done);
+        params.put("total", total);
+        if (message != null) {
+            params.put("message", message);
+        }
+        return JsonRpcNotification.of("notifications/progress", params);
+    }
+
+    private static ServerSentEvent<Object> event(Object message) {
+        return ServerSentEvent.builder(message).event("message").build();
+    }
+
+    /**
+     * Handles a JSON-RPC 2.0 batch. Entries are dispatched concurrently, up to
+     * BATCH_MAX_PARALLELISM at a time, and the responses are returned in request
+     * order. Notifications (entries without an id) get no response entry.
+     */
+    private Mono<?> handleBatch(JsonNode batch, HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        if (batch.isEmpty() || batch.size() > maxBatchSize) {
+            return Mono.just(JsonRpcResponse.error(null, INVALID_REQUEST,
+                    batch.isEmpty() ? "Invalid Request" : "Batch exceeds " + maxBatchSize + " requests"));
+        }
+        Caller caller = caller(httpRequest);
+        long retryAfterMs = rateLimiter.tryAcquire(caller.key(), batch.size());
+        if (retryAfterMs > 0) {
+            return Mono.just(rateLimited(null, retryAfterMs, httpResponse));
+        }
+        sessions.touch(caller.sessionId());
+        return Flux.fromIterable(batch)
+                .flatMapSequential(node -> dispatchBatchEntry(node, caller), batchParallelism)
+                .collectList()
+                .filter(responses -> !responses.isEmpty());
+    }
+
+    private Mono<JsonRpcResponse> dispatchBatchEntry(JsonNode node, Caller caller) {
+        JsonRpcRequest request;
+        try {
+            request = mapper.treeToValue(node, JsonRpcRequest.class);
+        } catch (Exception e) {
+            return Mono.just(JsonRpcResponse.error(null, INVALID_REQUEST, "Invalid Request"));
+        }
+        // A failing entry must not take the responses of the rest of the batch with it
+        Mono<JsonRpcResponse> response = Mono.defer(() -> dispatch(request, caller))
+                .onErrorResume(e -> Mono.just(JsonRpcResponse.error(request.getId(), INTERNAL_ERROR,
+                        "Internal error")));
+        return node.has("id") ? response : response.then(Mono.empty());
+    }
+
+    private JsonRpcResponse rateLimited(Object id, long retryAfterMs, HttpServletResponse httpResponse) {
+        httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        httpResponse.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000));
+        return JsonRpcResponse.error(id, RATE_LIMITED, "Rate limit exceeded", Map.of("retryAfterMs", retryAfterMs));
+    }
+
+    private Mono<JsonRpcResponse> dispatch(JsonRpcRequest request, Caller caller) {
+        return metrics.timeRpc(request.getMethod(), route(request, caller));
+    }
+
+    private Mono<JsonRpcResponse> route(JsonRpcRequest request, Caller caller) {
         if ("initialize".equals(request.getMethod())) {
-            Map<String, Object> capabilities = Map.of(
-                    "tools", Map.of("listChanged", true),
-                    "resources", Map.of("listChanged", false),
-                    "prompts", Map.of("listChanged", false),
-                    "logging", Map.of());
-
-            Map<String, Object> result = Map.of(
-                    "protocolVersion", "2024-11-05", // Using a recent stable version
-                    "capabilities", capabilities,
-                    "serverInfo", Map.of(
-                            "name", "ashish-mcp-server-java",
-                            "version", "0.0.1"));
-            return JsonRpcResponse.success(request.getId(), result);
+            return Mono.just(JsonRpcResponse.success(request.getId(), initializeResult));
         } else if ("notifications/initialized".equals(request.getMethod())) {
             // No response expected for notifications, but we can return success purely for
             // RPC handling if needed,
@@ -62,27 +273,145 @@ public class McpController {
             // but for simple RPC wrapper, returning a success(null) is often safe or
             // ignored.
             // Let's check JsonRpcResponse structure.
-            return null; // Spring might return empty body 200 OK which is fine for notification
+            return Mono.empty(); // Spring returns an empty 200 OK body, which is fine for a notification
+        } else if ("notifications/cancelled".equals(request.getMethod())) {
+            Map<String, Object> params = request.getParams();
+            if (params != null) {
+                inFlight.cancel(caller.key(), caller.openSession(), params.get("requestId"), String.valueOf(params.get("reason")));
+            }
+            return Mono.empty();
         } else if ("tools/list".equals(request.getMethod())) {
-            var toolDefs = tools.values().stream().map(ToolHandler::getDefinition).collect(Collectors.toList());
-            return JsonRpcResponse.success(request.getId(), Map.of("tools", toolDefs));
+            return Mono.just(JsonRpcResponse.success(request.getId(), tools.toolsList()));
         } else if ("tools/call".equals(request.getMethod())) {
-            String toolName = (String) request.getParams().get("name");
-            Map<String, Object> args = (Map<String, Object>) request.getParams().get("arguments");
-
-            if (tools.containsKey(toolName)) {
-                try {
-                    Object result = tools.get(toolName).execute(args, null); // Pass token if extracted
-                    return JsonRpcResponse.success(request.getId(), result);
-                } catch (Exception e) {
-                    return JsonRpcResponse.error(request.getId(), -32000, e.getMessage());
-                }
-            } else {
-                return JsonRpcResponse.error(request.getId(), -32601, "Method not found");
-            }
+            return callTool(request, ToolContext.of(null), caller); // Pass token if extracted
         } else if ("ping".equals(request.getMethod())) {
-            return JsonRpcResponse.success(request.getId(), Map.of());
+            return Mono.just(JsonRpcResponse.success(request.getId(), Map.of()));
+        }
+        return Mono.just(JsonRpcResponse.error(request.getId(), -32601, "Method not found"));
+    }
+
+    /**
+     * Runs a tool call that {@code caller} can cancel by its request id. A
+     * cancelled call completes without a response.
+     *
+     * The call has a deadline, from _meta.timeoutMs or the tool's configured
+     * timeout, that every backend call it makes observes. A tool that
+     * reports per-item results returns the items that completed by then and
+     * marks the rest as timed out; one that does not answer shortly after the
+     * deadline gets a timeout error.
+     *
+     * The call, and every backend call it makes, queues as the work of
+     * {@code caller}, at bulk priority if _meta.priority asks for it.
+     */
+    private Mono<JsonRpcResponse> callTool(JsonRpcRequest request, ToolContext context, Caller caller) {
+        Map<String, Object> params = request.getParams();
+        if (params == null || !(params.get("name") instanceof String toolName)
+                || params.get("arguments") != null && !(params.get("arguments") instanceof Map)) {
+            return Mono.just(JsonRpcResponse.error(request.getId(), INVALID_PARAMS, "Invalid params"));
+        }
+        Map<String, Object> args = (Map<String, Object>) params.get("arguments");
+
+        ToolHandler tool = tools.get(toolName);
+        if (tool == null) {
+            return Mono.just(JsonRpcResponse.error(request.getId(), -32601, "Method not found"));
+        }
+        // Started in the tool's bulkhead and completed on the backend's event loop; the servlet
+        // thread is released meanwhile. Time spent queued is not tool latency.
+        Mono<Object> execution = RequestJournal.timeTool(
+                metrics.timeTool(toolName, Mono.defer(() -> tool.executeAsync(args, context))),
+                admitted -> bulkheads.execute(toolName, admitted));
+        long timeoutMs = timeoutMs(request, toolName);
+        if (timeoutMs > 0) {
+            Duration timeout = Duration.ofMillis(timeoutMs);
+            execution = execution
+                    .timeout(timeout.plus(RESULT_GRACE), Mono.error(DeadlineExceededException::new))
+                    .contextWrite(Deadline.after(timeout));
+        }
+        execution = execution.contextWrite(
+                shares.of(caller.key(), caller.openSession(), meta(request, "priority")).context());
+        return inFlight.track(caller.key(), caller.openSession(), request.getId(), execution)
+                .map(result -> JsonRpcResponse.success(request.getId(), result))
+                .onErrorResume(ToolRejectedException.class, e -> {
+                    metrics.recordToolRejected(toolName);
+                    return Mono.just(JsonRpcResponse.error(request.getId(), TOOL_BUSY, e.getMessage(),
+                            Map.of("tool", toolName)));
+                })
+                .onErrorResume(DeadlineExceededException.class, e -> Mono.just(JsonRpcResponse.error(
+                        request.getId(), REQUEST_TIMEOUT, "Request timed out", Map.of("timeoutMs", timeoutMs))))
+                .onErrorResume(CircuitOpenException.class, e -> Mono.just(JsonRpcResponse.error(request.getId(),
+                        BACKEND_UNAVAILABLE, "Backend unavailable",
+                        Map.of("endpoint", e.getEndpoint(), "retryAfterMs", e.getRetryAfterMs()))))
+                .onErrorResume(e -> Mono.just(JsonRpcResponse.error(request.getId(), -32000, e.getMessage())));
+    }
+
+    /** The deadline of a tools/call in milliseconds from now, 0 for none. */
+    private long timeoutMs(JsonRpcRequest request, String toolName) {
+        if (request.getParams().get("_meta") instanceof Map<?, ?> meta
+                && meta.get("timeoutMs") instanceof Number requested && requested.longValue() > 0) {
+            return toolMaxTimeoutMs > 0 ? Math.min(requested.longValue(), toolMaxTimeoutMs) : requested.longValue();
+        }
+        return toolTimeoutsMs.getOrDefault(toolName, toolTimeoutMs);
+    }
+
+    private static Object progressToken(JsonRpcRequest request) {
+        return meta(request, "progressToken");
+    }
+
+    private static Object meta(JsonRpcRequest request, String key) {
+        Map<String, Object> params = request.getParams();
+        return params != null && params.get("_meta") instanceof Map<?, ?> meta ? meta.get(key) : null;
+    }
+
+    private static boolean acceptsEventStream(HttpServletRequest httpRequest) {
+        String accept = httpRequest.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) && !type.isWildcardType());
+    }
+
+    private static Map<String, Object> initializeResult() {
+        Map<String, Object> capabilities = Map.of(
+                "tools", Map.of("listChanged", true),
+                "resources", Map.of("listChanged", false),
+                "prompts", Map.of("listChanged", false),
+                "logging", Map.of());
+
+        return Map.of(
+                "protocolVersion", "2024-11-05", // Using a recent stable version
+                "capabilities", capabilities,
+                "serverInfo", Map.of(
+                        "name", "ashish-mcp-server-java",
+                        "version", "0.0.1"));
+    }
+
+    /**
+     * Who sent a request: the client key and, if named, the session it
+     * belongs to. The session id is whatever the client sent; {@code openSession}
+     * is that id if it is an open session of this client, else null.
+     */
+    private record Caller(String key, String sessionId, String openSession) {
+    }
+
+    private Caller caller(HttpServletRequest httpRequest) {
+        String key = clientKey(httpRequest);
+        String sessionId = sessionId(httpRequest);
+        return new Caller(key, sessionId, sessions.isOpenFor(sessionId, key) ? sessionId : null);
+    }
+
+    /** The session a POST belongs to, from the Mcp-Session-Id header or the sessionId parameter. */
+    private static String sessionId(HttpServletRequest httpRequest) {
+        String id = httpRequest.getHeader(SESSION_HEADER);
+        return id != null ? id : httpRequest.getParameter("sessionId");
+    }
+
+    /**
+     * Identifies the calling client: the bearer token when one is presented,
+     * otherwise the remote address.
+     */
+    private static String clientKey(HttpServletRequest httpRequest) {
+        String auth = httpRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (auth != null && auth.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return auth.substring(7);
         }
-        return JsonRpcResponse.error(request.getId(), -32601, "Method not found");
+        return httpRequest.getRemoteAddr();
     }
 }
@@ -0,0 +1,237 @@
+package org.apache.ofbiz.mcp.controller;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The open SSE streams of GET /mcp, by session id.
+ *
+ * At most MCP_SSE_MAX_SESSIONS streams are open at once; a client opening
+ * more than MCP_SSE_MAX_SESSIONS_PER_CLIENT replaces its oldest one, which
+ * is usually a stream it lost track of after a reconnect. Every
+ * MCP_SSE_HEARTBEAT_MS each stream gets a comment line, so a dead
+ * connection fails a write and is dropped instead of waiting for the OS to
+ * time it out. Heartbeats are written side by side, so a client that stops
+ * reading only holds up its own; one still blocked a whole interval later
+ * is closed as unreachable. A session the client has not used for
+ * MCP_SSE_IDLE_TIMEOUT_MS is closed. Tool calls made within a session are
+ * cancelled when it closes. Server-to-client messages go to one session or
+ * to all of them.
+ */
+@Component
+public class SseSessionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SseSessionRegistry.class);
+
+    private final int maxSessions;
+    private final int maxSessionsPerClient;
+    private final long heartbeatMs;
+    private final long heartbeatNanos;
+    private final long idleTimeoutNanos;
+    private final InFlightCalls inFlight;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+    private volatile Disposable heartbeat;
+
+    public SseSessionRegistry(AppConfig appConfig, InFlightCalls inFlight) {
+        this.inFlight = inFlight;
+        this.maxSessions = Math.max(1, appConfig.getSseMaxSessions());
+        this.maxSessionsPerClient = Math.max(1, appConfig.getSseMaxSessionsPerClient());
+        this.heartbeatMs = Math.max(1, appConfig.getSseHeartbeatMs());
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(appConfig.getSseIdleTimeoutMs());
+    }
+
+    @PostConstruct
+    public void start() {
+        // The sweep only hands out tasks; the writes and closes that can block run on tasks of their own
+        heartbeat = Schedulers.boundedElastic().schedulePeriodically(this::sweep,
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable task = heartbeat;
+        if (task != null) {
+            task.dispose();
+        }
+        sessions.values().forEach(session -> close(session, null));
+    }
+
+    /**
+     * Opens a stream for {@code clientKey} and sends it the endpoint event,
+     * or returns null if MCP_SSE_MAX_SESSIONS streams are already open.
+     */
+    public Session open(String clientKey) {
+        Session session;
+        synchronized (this) {
+            Session oldest = null;
+            int ofClient = 0;
+            for (Session s : sessions.values()) {
+                if (s.clientKey.equals(clientKey)) {
+                    ofClient++;
+                    oldest = oldest == null || s.createdAt < oldest.createdAt ? s : oldest;
+                }
+            }
+            if (ofClient >= maxSessionsPerClient) {
+                close(oldest, "replaced");
+            } else if (sessions.size() >= maxSessions) {
+                return null;
+            }
+            session = new Session(UUID.randomUUID().toString(), clientKey);
+            sessions.put(session.id, session);
+        }
+        SseEmitter emitter = session.emitter;
+        emitter.onCompletion(() -> remove(session));
+        emitter.onTimeout(() -> remove(session));
+        emitter.onError(e -> remove(session));
+        try {
+            emitter.send(SseEmitter.event().name("endpoint").data("/mcp?sessionId=" + session.id));
+        } catch (Exception e) {
+            close(session, null);
+        }
+        return session;
+    }
+
+    /** Records client activity on {@code sessionId}; false if no such session is open. */
+    public boolean touch(String sessionId) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.lastActivity = System.nanoTime();
+        return true;
+    }
+
+    public boolean isOpen(String sessionId) {
+        return sessionId != null && sessions.containsKey(sessionId);
+    }
+
+    /** True if {@code sessionId} is open and was opened by {@code clientKey}. */
+    public boolean isOpenFor(String sessionId, String clientKey) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        return session != null && session.clientKey.equals(clientKey);
+    }
+
+    /**
+     * Sends {@code message} as a message event to {@code sessionId}. A
+     * session whose write fails is closed. Returns false if the message was
+     * not sent.
+     */
+    public boolean send(String sessionId, Object message) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        return session != null && write(session, SseEmitter.event().name("message").data(message));
+    }
+
+    public void broadcast(Object message) {
+        for (Session session : sessions.values()) {
+            write(session, SseEmitter.event().name("message").data(message));
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Sessions closed for being idle, unreachable or replaced. */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            // Writes block while a client's socket buffer is full, and completing an emitter waits for them
+            if (idleTimeoutNanos > 0 && now - session.lastActivity > idleTimeoutNanos) {
+                Schedulers.boundedElastic().schedule(() -> close(session, "idle"));
+            } else if (session.heartbeatPending.compareAndSet(false, true)) {
+                Schedulers.boundedElastic().schedule(() -> heartbeat(session));
+            } else if (session.heartbeatWriting && now - session.heartbeatStarted > heartbeatNanos) {
+                Schedulers.boundedElastic().schedule(() -> close(session, "unreachable"));
+            }
+        }
+    }
+
+    private void heartbeat(Session session) {
+        try {
+            session.heartbeatStarted = System.nanoTime();
+            session.heartbeatWriting = true;
+            write(session, SseEmitter.event().comment("heartbeat"));
+        } finally {
+            session.heartbeatWriting = false;
+            session.heartbeatPending.set(false);
+        }
+    }
+
+    private boolean write(Session session, SseEmitter.SseEventBuilder event) {
+        try {
+            session.emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            close(session, "unreachable");
+            return false;
+        }
+    }
+
+    private boolean remove(Session session) {
+        if (!sessions.remove(session.id, session)) {
+            return false;
+        }
+        inFlight.cancelSession(session.id);
+        return true;
+    }
+
+    private void close(Session session, String reason) {
+        if (!remove(session)) {
+            return;
+        }
+        if (reason != null) {
+            evicted.increment();
+            log.debug("SSE session {} of {} closed: {}", session.id, session.clientKey, reason);
+        }
+        try {
+            session.emitter.complete();
+        } catch (Exception ignored) {
+            // Already failed or completed by the container
+        }
+    }
+
+    public static final class Session {
+        private final String id;
+        private final String clientKey;
+        private final SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        private final long createdAt = System.nanoTime();
+        private volatile long lastActivity = createdAt;
+        // Set from when a heartbeat is scheduled until it is written; a session has one at a time
+        private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private volatile boolean heartbeatWriting;
+        private volatile long heartbeatStarted;
+
+        private Session(String id, String clientKey) {
+            this.id = id;
+            this.clientKey = clientKey;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.apache.ofbiz.mcp.controller;
+
+import org.apache.ofbiz.mcp.backend.AdaptiveConcurrencyLimiter;
+import org.apache.ofbiz.mcp.backend.BackendNodes;
+import org.apache.ofbiz.mcp.backend.BackendPoolMetrics;
+import org.apache.ofbiz.mcp.backend.BackendResponseCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operational view of the MCP tier's connection to the OFBiz backend.
+ */
+@RestController
+@RequestMapping("/status")
+public class StatusController {
+
+    private final BackendPoolMetrics poolMetrics;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final BackendResponseCache cache;
+    private final BackendNodes nodes;
+
+    public StatusController(BackendPoolMetrics poolMetrics, AdaptiveConcurrencyLimiter limiter,
+            BackendResponseCache cache, BackendNodes nodes) {
+        this.poolMetrics = poolMetrics;
+        this.limiter = limiter;
+        this.cache = cache;
+        this.nodes = nodes;
+    }
+
+    @GetMapping(path = "/backend", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> backend() {
+        return Map.of(
+                "nodes", nodeStats(),
+                "pools", poolMetrics.snapshot(),
+                "concurrency", Map.of(
+                        "limit", limiter.getLimit(),
+                        "inFlight", limiter.getInFlight(),
+                        "queued", limiter.getQueued()),
+                "cache", cacheStats());
+    }
+
+    private List<Map<String, Object>> nodeStats() {
+        return nodes.getNodes().stream().map(node -> {
+            // The URL is null when BACKEND_API_BASE is unset, which Map.of would reject
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("url", node.getUrl());
+            stats.put("outstanding", node.getOutstanding());
+            stats.put("healthy", node.isHealthy());
+            stats.put("ejected", node.isEjected());
+            stats.put("ejections", node.getEjections());
+            return stats;
+        }).toList();
+    }
+
+    private Map<String, Object> cacheStats() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount());
+    }
+}
@@ -0,0 +1,407 @@
+package org.apache.ofbiz.mcp.journal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.model.JsonRpcResponse;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Journal of the requests POSTed to /mcp, for replaying production traffic
+ * with {@link org.apache.ofbiz.mcp.tools.JournalReplayer}.
+ *
+ * Each request, batch or single, becomes one JSON line holding the request
+ * body, when it arrived, the HTTP status, the JSON-RPC error code of the
+ * response, how it ended, and how its time split between waiting for a tool
+ * bulkhead and running tools. Request threads only put the entry in a
+ * lock-free ring buffer of MCP_JOURNAL_BUFFER_SIZE entries; a writer thread
+ * serializes the entries in batches to requests-*.jsonl files under
+ * MCP_JOURNAL_DIR, starting a new file past MCP_JOURNAL_MAX_FILE_BYTES and
+ * keeping the newest MCP_JOURNAL_MAX_FILES. When the writer falls behind,
+ * entries are dropped and counted rather than making requests wait. Bearer
+ * tokens are journaled as a hash, which tells clients apart without
+ * revealing them.
+ */
+@Component
+public class RequestJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestJournal.class);
+
+    private static final String FILE_PREFIX = "requests-";
+    private static final String FILE_SUFFIX = ".jsonl";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+            .withZone(ZoneOffset.UTC);
+    private static final int WRITE_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int MAX_CLIENT_HASHES = 10_000;
+
+    private final ObjectMapper mapper;
+    private final Path dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final RingBuffer buffer;
+    // Wall clock at startup plus elapsed nanoTime: microsecond timestamps that never go backwards
+    private final long epochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long epochNanos = System.nanoTime();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, String> clientHashes = new HashMap<>();
+    private MessageDigest digest;
+    private OutputStream out;
+    private long fileBytes;
+    private volatile boolean running;
+    private Thread writer;
+
+    public RequestJournal(AppConfig appConfig, ObjectMapper mapper) {
+        this.mapper = mapper;
+        String journalDir = appConfig.getJournalDir();
+        this.dir = journalDir == null || journalDir.isBlank() ? null : Paths.get(journalDir);
+        this.maxFileBytes = Math.max(1, appConfig.getJournalMaxFileBytes());
+        this.maxFiles = Math.max(1, appConfig.getJournalMaxFiles());
+        this.buffer = dir == null ? null : new RingBuffer(Math.max(2, appConfig.getJournalBufferSize()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (dir == null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "mcp-request-journal");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Journaling requests to {}", dir.toAbsolutePath());
+    }
+
+    /** Writes what is still buffered and closes the current file. */
+    @PreDestroy
+    public void stop() {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Journals {@code body}, received at {@code startNanos} from
+     * {@code client} and answered with {@code httpStatus}, once
+     * {@code response} (a Mono or a Flux) terminates or is cancelled. The
+     * response is returned as is when the journal is off.
+     */
+    public Publisher<?> record(long startNanos, JsonNode body, String client, boolean stream, int httpStatus,
+            Publisher<?> response) {
+        if (dir == null) {
+            return response;
+        }
+        Timing timing = new Timing(startNanos);
+        if (response instanceof Mono<?> mono) {
+            return mono.doOnNext(timing::observe)
+                    .doFinally(signal -> offer(timing, signal, body, client, stream, httpStatus))
+                    .contextWrite(context -> context.put(Timing.class, timing));
+        }
+        return Flux.from(response)
+                .doOnNext(timing::observe)
+                .doFinally(signal -> offer(timing, signal, body, client, stream, httpStatus))
+                .contextWrite(context -> context.put(Timing.class, timing));
+    }
+
+    /**
+     * Runs {@code execution} through {@code admission}, typically a tool
+     * bulkhead, charging the time it waited there and the time it ran to the
+     * journal entry of the request it belongs to.
+     */
+    public static <T> Mono<T> timeTool(Mono<T> execution, UnaryOperator<Mono<T>> admission) {
+        return Mono.deferContextual(context -> {
+            Timing timing = context.getOrDefault(Timing.class, null);
+            if (timing == null) {
+                return admission.apply(execution);
+            }
+            long submitted = System.nanoTime();
+            return admission.apply(Mono.defer(() -> {
+                long started = System.nanoTime();
+                timing.queuedNanos.add(started - submitted);
+                return execution.doFinally(signal -> timing.toolNanos.add(System.nanoTime() - started));
+            }));
+        });
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /** Entries not journaled because the buffer was full or the write failed. */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void offer(Timing timing, SignalType signal, JsonNode body, String client, boolean stream,
+            int httpStatus) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(epochMicros + (timing.startNanos - epochNanos) / 1000, client, stream, body,
+                httpStatus, timing.code, timing.errors, outcome(signal), now - timing.startNanos,
+                timing.queuedNanos.sum(), timing.toolNanos.sum());
+        if (!buffer.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "complete";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+
+    private void run() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        while (running) {
+            if (drain() == 0) {
+                flush();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (drain() > 0) {
+            // Entries buffered before shutdown
+        }
+        close();
+    }
+
+    private int drain() {
+        int count = 0;
+        Entry entry;
+        while (count < WRITE_BATCH && (entry = buffer.poll()) != null) {
+            count++;
+            write(entry);
+        }
+        return count;
+    }
+
+    private void write(Entry entry) {
+        try {
+            byte[] line = mapper.writeValueAsBytes(toJson(entry));
+            if (out == null || fileBytes + line.length + 1 > maxFileBytes) {
+                rotate();
+            }
+            out.write(line);
+            out.write('\n');
+            fileBytes += line.length + 1;
+            written.increment();
+        } catch (IOException e) {
+            dropped.increment();
+            log.warn("Could not write to the request journal: {}", e.toString());
+            close();
+        }
+    }
+
+    private ObjectNode toJson(Entry entry) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("ts", entry.timestampMicros);
+        node.put("client", clientHash(entry.client));
+        if (entry.stream) {
+            node.put("stream", true);
+        }
+        node.put("status", entry.status);
+        node.put("code", entry.code);
+        node.put("errors", entry.errors);
+        node.put("outcome", entry.outcome);
+        node.put("totalMicros", entry.totalNanos / 1000);
+        node.put("queuedMicros", entry.queuedNanos / 1000);
+        node.put("toolMicros", entry.toolNanos / 1000);
+        node.set("request", entry.body);
+        return node;
+    }
+
+    private String clientHash(String client) {
+        if (client == null) {
+            return "";
+        }
+        if (clientHashes.size() >= MAX_CLIENT_HASHES) {
+            clientHashes.clear();
+        }
+        return clientHashes.computeIfAbsent(client, c -> HexFormat.of()
+                .formatHex(digest.digest(c.getBytes(StandardCharsets.UTF_8)), 0, 8));
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Files.createDirectories(dir);
+        Path file = dir.resolve(FILE_PREFIX + FILE_TIME.format(Instant.now()) + FILE_SUFFIX);
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), 64 * 1024);
+        fileBytes = Files.size(file);
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> journals = files
+                    .filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX)
+                            && p.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (int i = 0; i < journals.size() - maxFiles; i++) {
+                Files.deleteIfExists(journals.get(i));
+            }
+        }
+    }
+
+    private void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Could not flush the request journal: {}", e.toString());
+            close();
+        }
+    }
+
+    private void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Could not close the request journal: {}", e.toString());
+        }
+        out = null;
+    }
+
+    /** What a request's pipeline reports while it runs. */
+    private static final class Timing {
+        final long startNanos;
+        final LongAdder queuedNanos = new LongAdder();
+        final LongAdder toolNanos = new LongAdder();
+        // Written by the response's onNext signals, which are serialized
+        volatile int code;
+        volatile int errors;
+
+        Timing(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        void observe(Object value) {
+            if (value instanceof ServerSentEvent<?> event) {
+                observe(event.data());
+            } else if (value instanceof List<?> responses) {
+                responses.forEach(this::observe);
+            } else if (value instanceof JsonRpcResponse response && response.errorCode() != 0) {
+                if (errors++ == 0) {
+                    code = response.errorCode();
+                }
+            }
+        }
+    }
+
+    private record Entry(long timestampMicros, String client, boolean stream, JsonNode body, int status, int code,
+            int errors, String outcome, long totalNanos, long queuedNanos, long toolNanos) {
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer queue. Each slot carries a
+     * sequence number telling producers whether it is free and the consumer
+     * whether it is filled, so neither side takes a lock.
+     */
+    private static final class RingBuffer {
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLongArray sequences;
+        private final int capacity;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        // Only touched by the writer thread
+        private long head;
+
+        RingBuffer(int minCapacity) {
+            this.capacity = Integer.highestOneBit(minCapacity - 1) << 1;
+            this.mask = capacity - 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /** False if the buffer is full. */
+        boolean offer(Entry entry) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) pos & mask;
+                long lag = sequences.get(index) - pos;
+                if (lag == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.lazySet(index, entry);
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (lag < 0) {
+                    return false;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        Entry poll() {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            Entry entry = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, head + capacity);
+            head++;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.apache.ofbiz.mcp.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ofbiz.mcp.backend.AdaptiveConcurrencyLimiter;
+import org.apache.ofbiz.mcp.backend.BackendNodes;
+import org.apache.ofbiz.mcp.backend.BackendResponseCache;
+import org.apache.ofbiz.mcp.backend.CircuitBreakers;
+import org.apache.ofbiz.mcp.backend.ReadCoalescer;
+import org.apache.ofbiz.mcp.backend.RetryPolicy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the state of the backend concurrency limit, response cache,
+ * read coalescing, retries, circuit breakers and nodes.
+ */
+@Component
+public class BackendMeterBinder implements MeterBinder {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final BackendResponseCache cache;
+    private final ReadCoalescer coalescer;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakers circuitBreakers;
+    private final BackendNodes nodes;
+
+    public BackendMeterBinder(AdaptiveConcurrencyLimiter limiter, BackendResponseCache cache,
+            ReadCoalescer coalescer, RetryPolicy retryPolicy, CircuitBreakers circuitBreakers, BackendNodes nodes) {
+        this.limiter = limiter;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreakers = circuitBreakers;
+        this.nodes = nodes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mcp.backend.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for backend calls")
+                .register(registry);
+        Gauge.builder("mcp.backend.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Backend calls in flight")
+                .register(registry);
+        Gauge.builder("mcp.backend.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Backend calls waiting for the concurrency limit")
+                .register(registry);
+
+        Gauge.builder("mcp.backend.cache.size", cache, BackendResponseCache::size)
+                .description("Cached backend responses")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.cache.requests", cache, c -> c.stats().hitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.cache.requests", cache, c -> c.stats().missCount())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.cache.evictions", cache, c -> c.stats().evictionCount())
+                .register(registry);
+
+        Gauge.builder("mcp.backend.coalesce.inflight", coalescer, ReadCoalescer::inFlightCount)
+                .description("Distinct backend reads currently shared by concurrent callers")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.coalesce.joined", coalescer, ReadCoalescer::coalescedCount)
+                .description("Backend reads served by joining an identical call in flight")
+                .register(registry);
+
+        FunctionCounter.builder("mcp.backend.retries", retryPolicy, RetryPolicy::getRetries)
+                .description("Backend calls sent again after a failure")
+                .tag("kind", "retry")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.retries", retryPolicy, RetryPolicy::getHedges)
+                .description("Backup requests sent for slow idempotent backend calls")
+                .tag("kind", "hedge")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.retries.denied", retryPolicy, RetryPolicy::getDenied)
+                .description("Retries and hedges not sent because the retry budget was spent")
+                .register(registry);
+
+        Gauge.builder("mcp.backend.circuit.open", circuitBreakers, CircuitBreakers::getOpenCount)
+                .description("Backend endpoints whose circuit is open or half-open")
+                .register(registry);
+        FunctionCounter.builder("mcp.backend.circuit.rejected", circuitBreakers, CircuitBreakers::getRejected)
+                .description("Backend calls failed fast by an open circuit")
+                .register(registry);
+
+        for (BackendNodes.Node node : nodes.getNodes()) {
+            String url = String.valueOf(node.getUrl());
+            Gauge.builder("mcp.backend.node.outstanding", node, BackendNodes.Node::getOutstanding)
+                    .description("Backend calls outstanding on the node")
+                    .tag("node", url)
+                    .register(registry);
+            Gauge.builder("mcp.backend.node.available", node, n -> n.isHealthy() && !n.isEjected() ? 1 : 0)
+                    .description("1 if the node passes its health checks and is not ejected, else 0")
+                    .tag("node", url)
+                    .register(registry);
+            FunctionCounter.builder("mcp.backend.node.ejections", node, BackendNodes.Node::getEjections)
+                    .description("Times the node was ejected for failing calls")
+                    .tag("node", url)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.apache.ofbiz.mcp.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ofbiz.mcp.journal.RequestJournal;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes how many requests the request journal wrote and how many it
+ * dropped, when it is on.
+ */
+@Component
+public class JournalMeterBinder implements MeterBinder {
+
+    private final RequestJournal journal;
+
+    public JournalMeterBinder(RequestJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("mcp.journal.written", journal, RequestJournal::getWritten)
+                .description("Requests written to the request journal")
+                .register(registry);
+        FunctionCounter.builder("mcp.journal.dropped", journal, RequestJournal::getDropped)
+                .description("Requests not journaled because the buffer was full or the write failed")
+                .register(registry);
+    }
+}
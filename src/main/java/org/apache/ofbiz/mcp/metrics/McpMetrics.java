@@ -0,0 +1,214 @@
+package org.apache.ofbiz.mcp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ofbiz.mcp.model.JsonRpcResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Timers, counters and in-flight gauges for JSON-RPC dispatch, tool
+ * execution and backend calls.
+ *
+ * Meters are created once per method, tool or backend endpoint and cached,
+ * so recording a call costs a map lookup and no tag allocation. JSON-RPC
+ * methods outside the MCP set are recorded as "other" to keep the number of
+ * series bounded.
+ */
+@Component
+public class McpMetrics {
+
+    private static final Set<String> KNOWN_METHODS = Set.of("initialize", "notifications/initialized",
+            "notifications/cancelled", "tools/list", "tools/call", "ping");
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(5);
+    private static final int MAX_STATUS = 600;
+    // Status tag value for calls that failed before a response arrived
+    private static final int NO_RESPONSE = 0;
+    private static final int INTERNAL_ERROR = -32603;
+
+    private final MeterRegistry registry;
+    private final AtomicInteger rpcInFlight = new AtomicInteger();
+    private final Map<String, RpcMeters> rpcMeters = new ConcurrentHashMap<>();
+    private final Map<String, ToolMeters> toolMeters = new ConcurrentHashMap<>();
+    private final Map<String, BackendMeters> backendMeters = new ConcurrentHashMap<>();
+
+    public McpMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("mcp.rpc.inflight", rpcInFlight, AtomicInteger::get)
+                .description("JSON-RPC requests being handled")
+                .register(registry);
+    }
+
+    /** Times {@code response} as one JSON-RPC request of {@code method}. */
+    public Mono<JsonRpcResponse> timeRpc(String method, Mono<JsonRpcResponse> response) {
+        RpcMeters meters = rpcMeters(method);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            rpcInFlight.incrementAndGet();
+            return response
+                    .doOnSuccess(r -> meters.record(System.nanoTime() - start, r == null ? 0 : r.errorCode()))
+                    .doOnError(e -> meters.record(System.nanoTime() - start, INTERNAL_ERROR))
+                    .doFinally(signal -> rpcInFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Times {@code execution} as one call of {@code tool}. A tool result
+     * flagged with isError counts as an error, like a failed Mono.
+     */
+    public Mono<Object> timeTool(String tool, Mono<Object> execution) {
+        ToolMeters meters = toolMeters.computeIfAbsent(tool, ToolMeters::new);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            meters.inFlight.incrementAndGet();
+            return execution
+                    .doOnSuccess(result -> meters.record(System.nanoTime() - start, isErrorResult(result)))
+                    .doOnError(e -> meters.record(System.nanoTime() - start, true))
+                    .doFinally(signal -> meters.inFlight.decrementAndGet());
+        });
+    }
+
+    /** Counts a call turned away because the tool's bulkhead was full. */
+    public void recordToolRejected(String tool) {
+        toolMeters.computeIfAbsent(tool, ToolMeters::new).rejected.increment();
+    }
+
+    /**
+     * Records one backend call to {@code endpoint} (method and path template)
+     * that was answered with {@code status}.
+     */
+    public void recordBackend(String endpoint, int status, long nanos) {
+        backendMeters.computeIfAbsent(endpoint, BackendMeters::new).record(status, nanos);
+    }
+
+    /** Records a backend call that failed before any response was received. */
+    public void recordBackendFailure(String endpoint, Throwable error, long nanos) {
+        if (error instanceof WebClientRequestException || error instanceof TimeoutException) {
+            recordBackend(endpoint, NO_RESPONSE, nanos);
+        }
+    }
+
+    private RpcMeters rpcMeters(String method) {
+        String tag = method != null && KNOWN_METHODS.contains(method) ? method : "other";
+        return rpcMeters.computeIfAbsent(tag, RpcMeters::new);
+    }
+
+    private static boolean isErrorResult(Object result) {
+        return result instanceof Map<?, ?> map && Boolean.TRUE.equals(map.get("isError"));
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+    }
+
+    private final class RpcMeters {
+        final String method;
+        final Timer success;
+        final Timer failure;
+        final Map<Integer, Counter> errors = new ConcurrentHashMap<>();
+
+        RpcMeters(String method) {
+            this.method = method;
+            this.success = timer("mcp.rpc.requests", "JSON-RPC request latency",
+                    "method", method, "outcome", "success");
+            this.failure = timer("mcp.rpc.requests", "JSON-RPC request latency",
+                    "method", method, "outcome", "error");
+        }
+
+        /** @param code the JSON-RPC error code, 0 for success or a notification */
+        void record(long nanos, int code) {
+            if (code == 0) {
+                success.record(nanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            failure.record(nanos, TimeUnit.NANOSECONDS);
+            errors.computeIfAbsent(code, c -> Counter.builder("mcp.rpc.errors")
+                    .description("JSON-RPC requests answered with an error")
+                    .tags("method", method, "code", String.valueOf(c))
+                    .register(registry)).increment();
+        }
+    }
+
+    private final class ToolMeters {
+        final Timer success;
+        final Timer failure;
+        final Counter errors;
+        final Counter rejected;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        ToolMeters(String tool) {
+            this.success = timer("mcp.tool.executions", "Tool execution latency",
+                    "tool", tool, "outcome", "success");
+            this.failure = timer("mcp.tool.executions", "Tool execution latency",
+                    "tool", tool, "outcome", "error");
+            this.errors = Counter.builder("mcp.tool.errors")
+                    .description("Tool calls that failed or returned an error result")
+                    .tag("tool", tool)
+                    .register(registry);
+            this.rejected = Counter.builder("mcp.tool.rejected")
+                    .description("Tool calls rejected because the tool's bulkhead was full")
+                    .tag("tool", tool)
+                    .register(registry);
+            Gauge.builder("mcp.tool.inflight", inFlight, AtomicInteger::get)
+                    .description("Tool calls being executed")
+                    .tag("tool", tool)
+                    .register(registry);
+        }
+
+        void record(long nanos, boolean error) {
+            if (error) {
+                failure.record(nanos, TimeUnit.NANOSECONDS);
+                errors.increment();
+            } else {
+                success.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private final class BackendMeters {
+        final String endpoint;
+        final AtomicReferenceArray<Timer> byStatus = new AtomicReferenceArray<>(MAX_STATUS);
+        final Counter errors;
+
+        BackendMeters(String endpoint) {
+            this.endpoint = endpoint;
+            this.errors = Counter.builder("mcp.backend.errors")
+                    .description("Backend calls answered with an error status or not answered at all")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+
+        void record(int status, long nanos) {
+            int index = status >= 0 && status < MAX_STATUS ? status : NO_RESPONSE;
+            Timer timer = byStatus.get(index);
+            if (timer == null) {
+                timer = timer("mcp.backend.requests", "Backend call latency", "endpoint", endpoint,
+                        "status", index == NO_RESPONSE ? "none" : String.valueOf(index));
+                byStatus.compareAndSet(index, null, timer);
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            if (index == NO_RESPONSE || index >= 400) {
+                errors.increment();
+            }
+        }
+    }
+}
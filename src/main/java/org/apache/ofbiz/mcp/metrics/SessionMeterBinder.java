@@ -0,0 +1,38 @@
+package org.apache.ofbiz.mcp.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ofbiz.mcp.controller.InFlightCalls;
+import org.apache.ofbiz.mcp.controller.SseSessionRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of open SSE sessions, how many were evicted, and the
+ * tool calls in flight and cancelled.
+ */
+@Component
+public class SessionMeterBinder implements MeterBinder {
+
+    private final SseSessionRegistry sessions;
+    private final InFlightCalls inFlight;
+
+    public SessionMeterBinder(SseSessionRegistry sessions, InFlightCalls inFlight) {
+        this.sessions = sessions;
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mcp.sse.sessions", sessions, SseSessionRegistry::size)
+                .description("Open SSE session streams")
+                .register(registry);
+        FunctionCounter.builder("mcp.sse.evicted", sessions, SseSessionRegistry::getEvicted)
+                .description("SSE sessions closed for being idle, unreachable or replaced")
+                .register(registry);
+        FunctionCounter.builder("mcp.tool.cancelled", inFlight, InFlightCalls::getCancelled)
+                .description("Tool calls cancelled by the client or by the end of their session")
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package org.apache.ofbiz.mcp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JsonRpcNotification {
+    private String jsonrpc = "2.0";
+    private String method;
+    private Map<String, Object> params;
+
+    public static JsonRpcNotification of(String method, Map<String, Object> params) {
+        return new JsonRpcNotification("2.0", method, params);
+    }
+}
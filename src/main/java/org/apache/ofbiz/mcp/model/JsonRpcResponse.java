@@ -20,13 +20,24 @@ public class JsonRpcResponse {
     }
 
     public static JsonRpcResponse error(Object id, int code, String message) {
-        return new JsonRpcResponse("2.0", null, new JsonRpcError(code, message), id);
+        return new JsonRpcResponse("2.0", null, new JsonRpcError(code, message, null), id);
+    }
+
+    public static JsonRpcResponse error(Object id, int code, String message, Object data) {
+        return new JsonRpcResponse("2.0", null, new JsonRpcError(code, message, data), id);
+    }
+
+    /** The error code, or 0 for a successful response. */
+    public int errorCode() {
+        return error == null ? 0 : error.getCode();
     }
 }
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 class JsonRpcError {
     private int code;
     private String message;
+    private Object data;
 }
@@ -0,0 +1,60 @@
+package org.apache.ofbiz.mcp.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+
+/**
+ * A JSON value serialized once up front. Writing it into a response copies
+ * the cached UTF-8 bytes into the output buffer instead of walking an
+ * object graph again.
+ */
+public final class PrecomputedJson implements JsonSerializable {
+
+    private final SerializedString json;
+    private final String etag;
+
+    private PrecomputedJson(String json) {
+        this.json = new SerializedString(json);
+        byte[] utf8 = this.json.asUnquotedUTF8();
+        CRC32 crc = new CRC32();
+        crc.update(utf8);
+        this.etag = "\"" + HexFormat.of().toHexDigits((int) crc.getValue()) + "-" + utf8.length + "\"";
+    }
+
+    public static PrecomputedJson of(ObjectMapper mapper, Object value) {
+        try {
+            return new PrecomputedJson(mapper.writeValueAsString(value));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Value cannot be serialized to JSON", e);
+        }
+    }
+
+    /** Strong validator for the serialized bytes, suitable for an ETag header. */
+    public String getEtag() {
+        return etag;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+}
@@ -0,0 +1,152 @@
+package org.apache.ofbiz.mcp.ratelimit;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limiter driven by RATE_LIMIT_WINDOW_MS and
+ * RATE_LIMIT_MAX_REQUESTS.
+ *
+ * Uses the sliding-window counter approximation: the count of the previous
+ * fixed window is weighted by how much of it still overlaps the sliding
+ * window. The window index and both counts of a client are packed into a
+ * single AtomicLong, so admission is a lock-free CAS loop that does not
+ * allocate. Idle buckets are swept opportunistically, at most once per
+ * window; once RATE_LIMIT_MAX_CLIENTS is reached, unknown clients share one
+ * overflow bucket until a sweep makes room, so memory stays bounded and a
+ * flood of new clients cannot make every request scan the whole table.
+ */
+@Component
+public class SlidingWindowRateLimiter {
+
+    private static final int COUNT_BITS = 22;
+    private static final int INDEX_BITS = 64 - 2 * COUNT_BITS;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final long windowMs;
+    private final int maxRequests;
+    private final int maxClients;
+    private final long origin = System.currentTimeMillis();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflow = new Bucket();
+    private final AtomicLong nextSweep;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public SlidingWindowRateLimiter(AppConfig config) {
+        this.windowMs = Math.max(0, config.getRateLimitWindowMs());
+        this.maxRequests = (int) Math.min(config.getRateLimitMaxRequests(), COUNT_MASK);
+        this.maxClients = Math.max(1, config.getRateLimitMaxClients());
+        this.nextSweep = new AtomicLong(origin + windowMs);
+    }
+
+    public boolean isEnabled() {
+        return windowMs > 0 && maxRequests > 0;
+    }
+
+    /**
+     * Tries to take {@code permits} requests from the client's window.
+     *
+     * @return 0 when the permits were granted, otherwise the number of
+     *         milliseconds after which the same call would succeed
+     */
+    public long tryAcquire(String clientKey, int permits) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        if (permits > maxRequests) {
+            return windowMs;
+        }
+        long now = System.currentTimeMillis();
+        maybeSweep(now);
+        Bucket bucket = bucketFor(clientKey, now);
+        bucket.lastSeen = now;
+
+        long elapsed = now - origin;
+        long index = (elapsed / windowMs) & INDEX_MASK;
+        long offset = elapsed % windowMs;
+        for (;;) {
+            long state = bucket.state.get();
+            long previous = (state >>> COUNT_BITS) & COUNT_MASK;
+            long current = state & COUNT_MASK;
+            long gap = (index - (state >>> (2 * COUNT_BITS))) & INDEX_MASK;
+            if (gap == 1) {
+                previous = current;
+                current = 0;
+            } else if (gap != 0) {
+                previous = 0;
+                current = 0;
+            }
+            double estimate = previous * ((double) (windowMs - offset) / windowMs) + current;
+            if (estimate + permits > maxRequests) {
+                return retryAfter(previous, current, offset, permits);
+            }
+            long next = (index << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | (current + permits);
+            if (bucket.state.compareAndSet(state, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    private Bucket bucketFor(String clientKey, long now) {
+        Bucket bucket = buckets.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(clientKey, k -> new Bucket());
+    }
+
+    private long retryAfter(long previous, long current, long offset, int permits) {
+        long room = maxRequests - permits;
+        if (current <= room) {
+            // Enough room in this window once the previous window has decayed a bit more
+            long target = ceilDiv(windowMs * (previous - (room - current)), previous);
+            return Math.max(1, target - offset);
+        }
+        // This window is exhausted; wait for it to roll over and then decay
+        long target = ceilDiv(windowMs * (current - room), current);
+        return (windowMs - offset) + target;
+    }
+
+    // In whole milliseconds, so rounding never adds a millisecond to an exact wait
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private void maybeSweep(long now) {
+        long due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + windowMs)) {
+            // When full, also drop clients only the previous window remembers, to let new ones in sooner
+            sweep(now, buckets.size() >= maxClients ? windowMs : 2 * windowMs);
+        }
+    }
+
+    private void sweep(long now, long maxIdleMs) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long idleBefore = now - maxIdleMs;
+            buckets.values().removeIf(b -> b.lastSeen < idleBefore);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Bucket {
+        // [window index | previous window count | current window count]
+        final AtomicLong state = new AtomicLong();
+        volatile long lastSeen;
+    }
+}
@@ -0,0 +1,179 @@
+package org.apache.ofbiz.mcp.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Queue that takes turns between flows instead of serving in arrival
+ * order, so a client with a thousand calls waiting delays another client's
+ * single call by about one call rather than a thousand.
+ *
+ * Within a priority, flows are served by start-time fair queueing: every
+ * item is tagged with a virtual start time, the later of the current
+ * virtual time and the finish of the previous item of its flow, and items
+ * leave in tag order. An item costs 1 / weight of virtual time, so a flow of
+ * weight 2 is served twice as often as one of weight 1 while both are
+ * waiting, and a flow that was idle resumes at the current virtual time
+ * without credit for the time it had nothing queued. Interactive items are
+ * always served before bulk ones. Within a flow, items keep their order.
+ *
+ * Not thread-safe; callers hold their own lock.
+ */
+public final class FairQueue<T> {
+
+    private final Level<T>[] levels;
+    private int size;
+    private long flowSequence;
+
+    @SuppressWarnings("unchecked")
+    public FairQueue() {
+        FairShare.Priority[] priorities = FairShare.Priority.values();
+        levels = new Level[priorities.length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new Level<>();
+        }
+    }
+
+    public void offer(T item, FairShare share) {
+        Level<T> level = levels[share.priority().ordinal()];
+        Flow<T> flow = level.flows.get(share.key());
+        if (flow == null) {
+            flow = new Flow<>(share.key(), flowSequence++);
+            level.flows.put(share.key(), flow);
+        }
+        double start = Math.max(level.virtualTime, flow.lastFinish);
+        flow.lastFinish = start + 1.0 / share.weight();
+        flow.items.add(new Tagged<>(item, start));
+        if (flow.items.size() == 1) {
+            level.active.add(flow);
+        }
+        size++;
+    }
+
+    /** Removes and returns the next item to serve, or null if the queue is empty. */
+    public T poll() {
+        for (Level<T> level : levels) {
+            Flow<T> flow = level.active.poll();
+            if (flow == null) {
+                continue;
+            }
+            Tagged<T> next = flow.items.poll();
+            level.virtualTime = next.start;
+            settle(level, flow);
+            size--;
+            return next.item;
+        }
+        return null;
+    }
+
+    /** Removes {@code item}, queued with {@code share}; false if it is not queued. */
+    public boolean remove(T item, FairShare share) {
+        Level<T> level = levels[share.priority().ordinal()];
+        Flow<T> flow = level.flows.get(share.key());
+        if (flow == null) {
+            return false;
+        }
+        boolean head = true;
+        for (Iterator<Tagged<T>> it = flow.items.iterator(); it.hasNext(); head = false) {
+            Tagged<T> tagged = it.next();
+            if (tagged.item != item) {
+                continue;
+            }
+            if (!it.hasNext()) {
+                // The flow's next item starts where this one would have
+                flow.lastFinish = tagged.start;
+            }
+            if (head) {
+                // The heap orders flows by their first item, so take the flow out before changing it
+                level.active.remove(flow);
+            }
+            it.remove();
+            size--;
+            if (head) {
+                settle(level, flow);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Makes room for an item of {@code share} by removing the newest item of
+     * the flow with the most items queued, looking at bulk work before
+     * interactive work. Returns null, removing nothing, if the longest flow
+     * is {@code share}'s own or has no more items than it, or is of a higher
+     * priority; then the new item itself is the one to turn away.
+     */
+    public T evictForNewcomer(FairShare share) {
+        Map<String, Flow<T>> ownLevel = levels[share.priority().ordinal()].flows;
+        Flow<T> own = ownLevel.get(share.key());
+        int ownSize = own == null ? 0 : own.items.size();
+        for (int i = levels.length - 1; i >= share.priority().ordinal(); i--) {
+            Level<T> level = levels[i];
+            Flow<T> longest = null;
+            for (Flow<T> flow : level.flows.values()) {
+                if (longest == null || flow.items.size() > longest.items.size()) {
+                    longest = flow;
+                }
+            }
+            boolean sameLevel = i == share.priority().ordinal();
+            if (longest == null || sameLevel && (longest == own || longest.items.size() <= ownSize + 1)) {
+                continue;
+            }
+            if (longest.items.size() == 1) {
+                level.active.remove(longest);
+                level.flows.remove(longest.key);
+            }
+            Tagged<T> evicted = longest.items.pollLast();
+            longest.lastFinish = evicted.start;
+            size--;
+            return evicted.item;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Puts {@code flow}, no longer in the active heap, back by its new head, or drops it if empty. */
+    private static <T> void settle(Level<T> level, Flow<T> flow) {
+        if (flow.items.isEmpty()) {
+            level.flows.remove(flow.key);
+        } else {
+            level.active.add(flow);
+        }
+    }
+
+    private static final class Level<T> {
+        final Map<String, Flow<T>> flows = new HashMap<>();
+        // Flows with items queued, by the start tag of their first item
+        final PriorityQueue<Flow<T>> active = new PriorityQueue<>((a, b) -> {
+            int byTag = Double.compare(a.items.peek().start, b.items.peek().start);
+            return byTag != 0 ? byTag : Long.compare(a.sequence, b.sequence);
+        });
+        double virtualTime;
+    }
+
+    private static final class Flow<T> {
+        final String key;
+        final long sequence;
+        final ArrayDeque<Tagged<T>> items = new ArrayDeque<>();
+        double lastFinish;
+
+        Flow(String key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+
+    private record Tagged<T>(T item, double start) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.apache.ofbiz.mcp.scheduling;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Whose work a tool call or backend call is, for the {@link FairQueue}s it
+ * waits in: the flow it is queued in, its weight within its priority, and
+ * the priority. Carried in the Reactor context, so every backend call a
+ * tool makes is queued as the work of the client that called the tool.
+ *
+ * @param key    the flow: a client, or one session of a client
+ * @param weight share of the queue's capacity relative to other flows, at least 1
+ */
+public record FairShare(String key, int weight, Priority priority) {
+
+    /** Share of work started outside any client's request. */
+    public static final FairShare DEFAULT = new FairShare("", 1, Priority.INTERACTIVE);
+
+    public enum Priority {
+        /** Served first. */
+        INTERACTIVE,
+        /** Served only while no interactive work is waiting. */
+        BULK
+    }
+
+    public FairShare {
+        weight = Math.max(1, weight);
+    }
+
+    /** Context entry under which the work of a pipeline is queued. */
+    public Context context() {
+        return Context.of(FairShare.class, this);
+    }
+
+    /** The share of the subscriber's work, {@link #DEFAULT} if it has none. */
+    public static FairShare of(ContextView context) {
+        return context.getOrDefault(FairShare.class, DEFAULT);
+    }
+}
@@ -0,0 +1,65 @@
+package org.apache.ofbiz.mcp.scheduling;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides the {@link FairShare} of a tool call from who made it.
+ *
+ * Each client, identified by its bearer token or else its address, is a
+ * flow of weight FAIR_SHARE_WEIGHTS[client], or FAIR_SHARE_DEFAULT_WEIGHT.
+ * With FAIR_SHARE_BY_SESSION each SSE session of a client is a flow of its
+ * own with the client's weight; only sessions the client really has open
+ * count, at most MCP_SSE_MAX_SESSIONS_PER_CLIENT of them, so made-up session
+ * ids cannot multiply a client's share. A client's calls are interactive
+ * unless FAIR_SHARE_PRIORITIES says "bulk"; a call can lower itself to bulk
+ * with _meta.priority, but never raise itself above its client's priority.
+ */
+@Component
+public class FairShares {
+
+    private final Map<String, Integer> weights;
+    private final int defaultWeight;
+    private final Map<String, FairShare.Priority> priorities = new HashMap<>();
+    private final boolean bySession;
+
+    public FairShares(AppConfig appConfig) {
+        this.weights = Map.copyOf(appConfig.getFairShareWeights());
+        this.defaultWeight = Math.max(1, appConfig.getFairShareDefaultWeight());
+        appConfig.getFairSharePriorities().forEach((client, priority) -> {
+            FairShare.Priority parsed = parse(priority);
+            if (parsed == null) {
+                throw new IllegalArgumentException("FAIR_SHARE_PRIORITIES: unknown priority " + priority
+                        + ", expected interactive or bulk");
+            }
+            priorities.put(client, parsed);
+        });
+        this.bySession = appConfig.isFairShareBySession();
+    }
+
+    /**
+     * @param sessionId         the open session of {@code clientKey} the call was made in, or null
+     * @param requestedPriority the call's _meta.priority, or null
+     */
+    public FairShare of(String clientKey, String sessionId, Object requestedPriority) {
+        FairShare.Priority priority = priorities.getOrDefault(clientKey, FairShare.Priority.INTERACTIVE);
+        FairShare.Priority requested = requestedPriority instanceof String s ? parse(s) : null;
+        if (requested != null && requested.compareTo(priority) > 0) {
+            priority = requested;
+        }
+        String key = bySession && sessionId != null ? clientKey + "#" + sessionId : clientKey;
+        return new FairShare(key, weights.getOrDefault(clientKey, defaultWeight), priority);
+    }
+
+    private static FairShare.Priority parse(String priority) {
+        try {
+            return FairShare.Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
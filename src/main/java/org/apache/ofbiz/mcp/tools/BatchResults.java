@@ -0,0 +1,49 @@
+package org.apache.ofbiz.mcp.tools;
+
+import org.apache.ofbiz.mcp.backend.CircuitOpenException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Turns the per-item results of a batch tool into its tool result.
+ *
+ * On a streamed call each item is reported as progress as soon as its
+ * backend call finishes and only the count is kept, so the batch is never
+ * held in memory. Otherwise the items are collected into the result text.
+ * An open backend circuit fails the whole call rather than each item.
+ */
+final class BatchResults {
+
+    private BatchResults() {
+    }
+
+    static Mono<Object> report(Flux<String> items, long total, ToolContext context,
+            Function<List<String>, String> collectedText, LongFunction<String> streamedText) {
+        if (!context.isStreaming()) {
+            return items.collectList().map(results -> text(collectedText.apply(results)));
+        }
+        AtomicLong done = new AtomicLong();
+        return items.doOnNext(item -> context.progress(done.incrementAndGet(), total, item))
+                .then(Mono.fromSupplier(() -> text(streamedText.apply(done.get()))));
+    }
+
+    /**
+     * Whether {@code error} should become an item's result instead of failing
+     * the call. An open circuit fails the call, but a half-open one only the
+     * items beyond its probes: failing the call would cancel the probes and
+     * keep the circuit from ever closing.
+     */
+    static boolean isItemError(Throwable error) {
+        return !(error instanceof CircuitOpenException e) || e.isHalfOpen();
+    }
+
+    static Object text(String text) {
+        return Map.of("content", List.of(Map.of("type", "text", "text", text)));
+    }
+}
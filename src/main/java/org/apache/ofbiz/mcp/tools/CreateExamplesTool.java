@@ -1,21 +1,18 @@
 package org.apache.ofbiz.mcp.tools;
 
-import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.List;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.util.Map;
 
 @Component
 public class CreateExamplesTool implements ToolHandler {
-    private final AppConfig appConfig;
-    private final WebClient webClient;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final BackendClient backendClient;
 
-    public CreateExamplesTool(AppConfig cfg, WebClient.Builder b) {
-        this.appConfig = cfg;
-        this.webClient = b.baseUrl(cfg.getBackendApiBase()).build();
+    public CreateExamplesTool(BackendClient backendClient) {
+        this.backendClient = backendClient;
     }
 
     @Override
@@ -30,26 +27,24 @@ public class CreateExamplesTool implements ToolHandler {
     }
 
     @Override
-    public Object execute(Map<String, Object> serverArgs, String downstreamToken) {
+    public Mono<Object> executeAsync(Map<String, Object> serverArgs, ToolContext context) {
         int count = ((Number) serverArgs.getOrDefault("count", 5)).intValue();
         String prefix = (String) serverArgs.getOrDefault("prefix", "Ex");
 
-        List<String> results = reactor.core.publisher.Flux.range(0, count)
-                .flatMap(i -> webClient.post().uri("/rest/example-rest/example")
-                        .header("Authorization", "Bearer " + appConfig.getBackendAccessToken())
-                        .bodyValue(Map.of("exampleName", prefix + " " + (i + 1), "exampleTypeId", "CONTRIVED",
-                                "statusId", "EXST_IN_DESIGN"))
-                        .retrieve().bodyToMono(String.class)
-                        .map(resp -> {
-                            try {
-                                return mapper.readTree(resp).path("data").path("exampleId").asText();
-                            } catch (Exception e) {
-                                return "Error parsing: " + e.getMessage();
-                            }
-                        })
-                        .onErrorResume(e -> reactor.core.publisher.Mono.just("Error: " + e.getMessage())))
-                .collectList().block();
-
-        return Map.of("content", List.of(Map.of("type", "text", "text", "Result: " + results)));
+        Flux<String> results = Flux.range(0, count)
+                .flatMap(i -> backendClient.exchange(HttpMethod.POST, "/rest/example-rest/example", Map.of(),
+                        Map.of("exampleName", prefix + " " + (i + 1), "exampleTypeId", "CONTRIVED",
+                                "statusId", "EXST_IN_DESIGN"),
+                        BackendClient.toData(CreatedExample.class))
+                        .mapNotNull(CreatedExample::exampleId)
+                        .defaultIfEmpty("")
+                        .onErrorResume(BatchResults::isItemError, e -> Mono.just("Error: " + e.getMessage())),
+                        backendClient.maxConcurrency());
+        return BatchResults.report(results, count, context, all -> "Result: " + all,
+                done -> "Result: " + done + " examples processed, ids sent as progress notifications");
+    }
+
+    /** The part of the create response that is used. */
+    record CreatedExample(String exampleId) {
     }
 }
@@ -1,23 +1,19 @@
 package org.apache.ofbiz.mcp.tools;
 
-import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @Component
 public class DeleteExamplesTool implements ToolHandler {
-    private final AppConfig cfg;
-    private final WebClient client;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final BackendClient client;
 
-    public DeleteExamplesTool(AppConfig c, WebClient.Builder b) {
-        this.cfg = c;
-        this.client = b.baseUrl(c.getBackendApiBase()).build();
+    public DeleteExamplesTool(BackendClient backendClient) {
+        this.client = backendClient;
     }
 
     @Override
@@ -33,33 +29,21 @@ public class DeleteExamplesTool implements ToolHandler {
     }
 
     @Override
-    public Object execute(Map<String, Object> args, String t) {
+    public Mono<Object> executeAsync(Map<String, Object> args, ToolContext context) {
         if (!args.containsKey("count"))
-            throw new IllegalArgumentException("Required parameter 'count' missing");
+            return Mono.error(new IllegalArgumentException("Required parameter 'count' missing"));
         int count = ((Number) args.get("count")).intValue();
-        try {
-            String resp = client.get().uri("/rest/example-rest/example")
-                    .header("Authorization", "Bearer " + cfg.getBackendAccessToken()).retrieve()
-                    .bodyToMono(String.class).block();
-            List<String> ids = StreamSupport
-                    .stream(mapper.readTree(resp).path("data").path("exampleList").spliterator(), false)
-                    .map(n -> n.path("exampleId").asText())
-                    .sorted((s1, s2) -> Long.compare(Long.parseLong(s2), Long.parseLong(s1))) // Explicit comparator for
-                                                                                              // reverse sort
-                    .limit(count).collect(Collectors.toList());
-
-            reactor.core.publisher.Flux.fromIterable(ids)
-                    .flatMap(id -> client.delete()
-                            .uri(u -> u.path("/rest/example-rest/example").queryParam("exampleId", id).build())
-                            .header("Authorization", "Bearer " + cfg.getBackendAccessToken()).retrieve()
-                            .toBodilessEntity())
-                    .collectList()
-                    .block();
-
-            return Map.of("content",
-                    List.of(Map.of("type", "text", "text", "Deleted " + ids.size() + " examples: " + ids)));
-        } catch (Exception e) {
-            return Map.of("content", List.of(Map.of("type", "text", "text", "Error: " + e.getMessage())));
-        }
+        return client.get("/rest/example-rest/example", Map.of(), "newest:" + count, NewestExampleIds.newest(count))
+                .flatMap(ids -> {
+                    Flux<String> deleted = Flux.fromIterable(ids)
+                            .flatMap(id -> client.exchange(HttpMethod.DELETE, "/rest/example-rest/example",
+                                    Map.of("exampleId", id), null, BackendClient.toBodiless()).thenReturn(id),
+                                    client.maxConcurrency());
+                    return BatchResults.report(deleted, ids.size(), context,
+                            all -> "Deleted " + ids.size() + " examples: " + ids,
+                            done -> "Deleted " + done + " examples");
+                })
+                .onErrorResume(BatchResults::isItemError,
+                        e -> Mono.just(BatchResults.text("Error: " + e.getMessage())));
     }
 }
@@ -1,13 +1,20 @@
 package org.apache.ofbiz.mcp.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ofbiz.mcp.backend.AdaptiveConcurrencyLimiter;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.apache.ofbiz.mcp.backend.BackendPoolMetrics;
+import org.apache.ofbiz.mcp.backend.BackendResponseCache;
+import org.apache.ofbiz.mcp.backend.BackendTokenManager;
+import org.apache.ofbiz.mcp.backend.CircuitBreakers;
+import org.apache.ofbiz.mcp.backend.ReadCoalescer;
+import org.apache.ofbiz.mcp.backend.RetryPolicy;
 import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.config.WebClientConfig;
+import org.apache.ofbiz.mcp.metrics.McpMetrics;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.netty.http.client.HttpClient;
-import io.netty.handler.ssl.SslContext;
-import io.netty.handler.ssl.SslContextBuilder;
-import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.File;
 import java.util.List;
@@ -45,22 +52,24 @@ public class ExampleRunner {
         }
         AppConfig config = mapper.readValue(configFile, AppConfig.class);
 
-        // 2. Configure SSL to trust all (Insecure - for local dev only)
-        SslContext sslContext = SslContextBuilder
-                .forClient()
-                .trustManager(InsecureTrustManagerFactory.INSTANCE)
-                .build();
-
-        HttpClient httpClient = HttpClient.create()
-                .secure(t -> t.sslContext(sslContext));
-
-        WebClient.Builder webClientBuilder = WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        // 2. Build the shared backend client (trusts self-signed certificates - for local dev only)
+        WebClientConfig webClientConfig = new WebClientConfig();
+        ConnectionProvider connectionProvider = webClientConfig.backendConnectionProvider(config,
+                new BackendPoolMetrics());
+        WebClient.Builder webClientBuilder = webClientConfig.webClientBuilder(config, connectionProvider, mapper);
+        WebClient backendWebClient = webClientConfig.backendWebClient(webClientBuilder, config);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+        BackendTokenManager tokens = new BackendTokenManager(config, backendWebClient, mapper);
+        tokens.start();
+        BackendClient backendClient = new BackendClient(webClientConfig.backendNodes(webClientBuilder, config),
+                tokens, limiter, new BackendResponseCache(config), new ReadCoalescer(),
+                new RetryPolicy(config, limiter), new CircuitBreakers(config),
+                new McpMetrics(new SimpleMeterRegistry()));
 
         // 3. Instantiate tools
-        CreateExamplesTool createTool = new CreateExamplesTool(config, webClientBuilder);
-        UpdateExamplesTool updateTool = new UpdateExamplesTool(config, webClientBuilder);
-        DeleteExamplesTool deleteTool = new DeleteExamplesTool(config, webClientBuilder);
+        CreateExamplesTool createTool = new CreateExamplesTool(backendClient);
+        UpdateExamplesTool updateTool = new UpdateExamplesTool(backendClient);
+        DeleteExamplesTool deleteTool = new DeleteExamplesTool(backendClient);
 
         // 4. Determine action
         String action = args.length > 0 ? args[0] : "create";
@@ -88,7 +97,7 @@ public class ExampleRunner {
             case "update-last":
                 // Args: count
                 int uCount = actionArgs.length > 0 ? Integer.parseInt(actionArgs[0]) : 5;
-                runUpdateLast(updateTool, config, webClientBuilder, uCount);
+                runUpdateLast(updateTool, backendClient, uCount);
                 break;
             default:
                 System.out.println("Unknown action: " + action
@@ -199,28 +208,14 @@ public class ExampleRunner {
         System.out.println("\n=== Scenario Completed ===");
     }
 
-    private static void runUpdateLast(UpdateExamplesTool tool, AppConfig config, WebClient.Builder webClientBuilder,
-            int count) {
+    private static void runUpdateLast(UpdateExamplesTool tool, BackendClient client, int count) {
         System.out.println("--- Running UpdateExamplesTool (Last " + count + ") ---");
 
         // 1. Fetch IDs (Using logic similar to DeleteExamplesTool)
         System.out.println("Fetching last " + count + " examples...");
-        WebClient client = webClientBuilder.baseUrl(config.getBackendApiBase()).build();
-        ObjectMapper mapper = new ObjectMapper();
-
         List<String> ids;
         try {
-            String resp = client.get().uri("/rest/example-rest/example")
-                    .header("Authorization", "Bearer " + config.getBackendAccessToken())
-                    .retrieve()
-                    .bodyToMono(String.class).block();
-
-            ids = java.util.stream.StreamSupport
-                    .stream(mapper.readTree(resp).path("data").path("exampleList").spliterator(), false)
-                    .map(n -> n.path("exampleId").asText())
-                    .sorted((s1, s2) -> Long.compare(Long.parseLong(s2), Long.parseLong(s1)))
-                    .limit(count)
-                    .collect(java.util.stream.Collectors.toList());
+            ids = client.get("/rest/example-rest/example", Map.of(), "newest:" + count, NewestExampleIds.newest(count)).block();
 
             if (ids.isEmpty()) {
                 System.out.println("No examples found to update.");
@@ -0,0 +1,314 @@
+package org.apache.ofbiz.mcp.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Replays a request journal written with MCP_JOURNAL_DIR against an MCP
+ * server, to reproduce a production incident locally.
+ *
+ * Requests are sent in the order they arrived and on the journal's
+ * schedule, scaled by --speed, without waiting for earlier responses, so the
+ * server sees the same arrival pattern and concurrency. The journal is
+ * written as requests complete, so entries are put back in arrival order
+ * within --reorder-window-ms: a request that ran longer than that can no
+ * longer be sent on time, is sent at once, and is counted as late. Each journaled client is replayed
+ * with its own bearer token, which keeps per-client rate limiting and
+ * cancellation apart. Latency is measured from the time a request was due.
+ * The report sets replay latency and errors per method (per tool for
+ * tools/call) beside those the journal recorded. Requests tied to an SSE
+ * session are sent without it, as the session no longer exists.
+ *
+ * With --stub-port a {@link StubBackend} is started on that port; point the
+ * server's BACKEND_API_BASE at it.
+ *
+ * Usage:
+ * mvn exec:java -Dexec.mainClass="org.apache.ofbiz.mcp.tools.JournalReplayer"
+ * -Dexec.args="--journal journal --url http://localhost:3000/mcp --speed 2 --stub-port 8089"
+ *
+ * Options (defaults in brackets):
+ * --journal         a journal file, or a directory whose requests-*.jsonl files are replayed in order
+ * --url             MCP endpoint [http://localhost:3000/mcp]
+ * --speed           replay speed relative to the original: 2 sends twice as fast [1]
+ * --reorder-window-ms longest original request that is still replayed on schedule [120000]
+ * --stub-port       start a stub backend on this port
+ * --stub-examples   records in the stub's example listing [1000]
+ * --stub-latency-ms latency added by the stub [0]
+ * --stub-error-rate fraction of stub responses that are 500s [0]
+ */
+public class JournalReplayer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String url;
+    private final double speed;
+    private final long reorderWindowMicros;
+    private final Map<String, Recorder> recorders = new TreeMap<>();
+    private final AtomicLong late = new AtomicLong();
+
+    private JournalReplayer(String url, double speed, long reorderWindowMs) {
+        ConnectionProvider connections = ConnectionProvider.builder("journal-replayer")
+                .maxConnections(10_000)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(connections).headers(h -> h.set("Content-Type", "application/json"));
+        this.url = url;
+        this.speed = speed;
+        this.reorderWindowMicros = reorderWindowMs * 1000;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("journal")) {
+            throw new IllegalArgumentException("--journal is required");
+        }
+        List<Path> files = journalFiles(Paths.get(options.get("journal")));
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("--speed must be positive: " + speed);
+        }
+
+        StubBackend stub = null;
+        if (options.containsKey("stub-port")) {
+            stub = StubBackend.start(Integer.parseInt(options.get("stub-port")),
+                    Integer.parseInt(options.getOrDefault("stub-examples", "1000")));
+            stub.setLatency(Duration.ofMillis(Long.parseLong(options.getOrDefault("stub-latency-ms", "0"))));
+            stub.setErrorRate(Double.parseDouble(options.getOrDefault("stub-error-rate", "0")));
+            System.out.println("Stub backend listening on " + stub.baseUrl());
+        }
+
+        JournalReplayer replayer = new JournalReplayer(options.getOrDefault("url", "http://localhost:3000/mcp"),
+                speed, Long.parseLong(options.getOrDefault("reorder-window-ms", "120000")));
+        System.out.println("Replaying " + files + " against " + replayer.url + " at " + speed + "x");
+        try {
+            long elapsed = replayer.replay(files);
+            replayer.report(elapsed);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    /** Sends every journaled request on schedule and returns the nanos taken. */
+    private long replay(List<Path> files) {
+        long start = System.nanoTime();
+        // The first entry out of the reorder buffer is the earliest arrival
+        AtomicLong firstMicros = new AtomicLong(-1);
+        Reorder reorder = new Reorder(reorderWindowMicros);
+        Flux.fromIterable(files)
+                .concatMap(file -> Flux.using(() -> Files.lines(file), Flux::fromStream, Stream::close))
+                .filter(line -> !line.isBlank())
+                .map(JournalReplayer::parse)
+                .concatMapIterable(reorder::offer)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(reorder.drain())))
+                .concatMap(entry -> {
+                    long micros = entry.path("ts").asLong();
+                    firstMicros.compareAndSet(-1, micros);
+                    if (micros < firstMicros.get()) {
+                        late.incrementAndGet();
+                    }
+                    long due = start + (long) ((micros - firstMicros.get()) * 1000 / speed);
+                    long wait = due - System.nanoTime();
+                    Mono<Scheduled> scheduled = Mono.just(new Scheduled(entry, due));
+                    return wait > 0 ? scheduled.delayElement(Duration.ofNanos(wait)) : scheduled;
+                })
+                .flatMap(scheduled -> send(scheduled.entry(), scheduled.dueNanos()), Integer.MAX_VALUE)
+                .blockLast();
+        return System.nanoTime() - start;
+    }
+
+    private Mono<Void> send(JsonNode entry, long dueNanos) {
+        JsonNode request = entry.path("request");
+        boolean stream = entry.path("stream").asBoolean();
+        byte[] body;
+        try {
+            body = MAPPER.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String auth = "Bearer replay-" + entry.path("client").asText();
+        boolean originalOk = entry.path("status").asInt() < 400 && entry.path("code").asInt() == 0
+                && "complete".equals(entry.path("outcome").asText());
+        Recorder recorder = recorder(name(request));
+        return client.headers(h -> h.set("Authorization", auth)
+                        .set("Accept", stream ? "application/json, text/event-stream" : "application/json"))
+                .post()
+                .uri(url)
+                .send(ByteBufFlux.fromInbound(Mono.just(Unpooled.wrappedBuffer(body))))
+                .responseSingle((resp, content) -> content.asString(StandardCharsets.UTF_8).defaultIfEmpty("")
+                        .map(text -> resp.status().code() < 400 && !text.contains("\"error\":{")))
+                .onErrorReturn(false)
+                .doOnNext(ok -> recorder.record(System.nanoTime() - dueNanos, ok,
+                        entry.path("totalMicros").asLong() * 1000, originalOk))
+                .then();
+    }
+
+    private synchronized Recorder recorder(String name) {
+        return recorders.computeIfAbsent(name, n -> new Recorder());
+    }
+
+    private synchronized void report(long elapsedNanos) {
+        System.out.println(String.format(Locale.ROOT, "%-28s %8s %15s %19s %19s", "method", "requests",
+                "errors was/now", "p50 ms was/now", "p99 ms was/now"));
+        long total = 0;
+        for (Map.Entry<String, Recorder> e : recorders.entrySet()) {
+            Recorder r = e.getValue();
+            total += r.count;
+            System.out.println(String.format(Locale.ROOT, "%-28s %8d %7d/%-7d %9.2f/%-9.2f %9.2f/%-9.2f",
+                    e.getKey(), r.count, r.originalErrors, r.errors,
+                    percentileMs(r.original, r.count, 0.5), percentileMs(r.replayed, r.count, 0.5),
+                    percentileMs(r.original, r.count, 0.99), percentileMs(r.replayed, r.count, 0.99)));
+        }
+        System.out.println(String.format(Locale.ROOT, "Replayed %d requests in %.1fs (%.1f/s)", total,
+                elapsedNanos / 1e9, total * 1e9 / elapsedNanos));
+        if (late.get() > 0) {
+            System.out.println(late.get() + " requests arrived before requests already sent; raise --reorder-window-ms"
+                    + " above the longest request to replay them on time");
+        }
+    }
+
+    /** The JSON-RPC method of a request, the tool name of a tools/call, or "batch". */
+    private static String name(JsonNode request) {
+        if (request.isArray()) {
+            return "batch";
+        }
+        String method = request.path("method").asText("?");
+        return "tools/call".equals(method) ? method + ":" + request.path("params").path("name").asText("?") : method;
+    }
+
+    private static JsonNode parse(String line) {
+        try {
+            return MAPPER.readTree(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Not a journal entry: " + line, e);
+        }
+    }
+
+    private static List<Path> journalFiles(Path journal) throws IOException {
+        if (!Files.isDirectory(journal)) {
+            return List.of(journal);
+        }
+        try (Stream<Path> files = Files.list(journal)) {
+            List<Path> journals = files
+                    .filter(p -> p.getFileName().toString().startsWith("requests-")
+                            && p.getFileName().toString().endsWith(".jsonl"))
+                    .sorted()
+                    .toList();
+            if (journals.isEmpty()) {
+                throw new IllegalArgumentException("No requests-*.jsonl files in " + journal);
+            }
+            return journals;
+        }
+    }
+
+    private static double percentileMs(long[] nanos, int count, double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    private record Scheduled(JsonNode entry, long dueNanos) {
+    }
+
+    /**
+     * Puts entries, journaled in completion order, back in arrival order.
+     * Once a request completing at {@code c} has been read, any entry still
+     * to come completes later, so it arrived after {@code c - window} unless
+     * it took longer than the window; entries that arrived before that are
+     * released.
+     */
+    private static final class Reorder {
+        private final long windowMicros;
+        private final PriorityQueue<JsonNode> pending = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.path("ts").asLong(), b.path("ts").asLong()));
+        private long completedMicros = Long.MIN_VALUE;
+
+        Reorder(long windowMicros) {
+            this.windowMicros = windowMicros;
+        }
+
+        List<JsonNode> offer(JsonNode entry) {
+            pending.add(entry);
+            long ts = entry.path("ts").asLong();
+            completedMicros = Math.max(completedMicros, ts + entry.path("totalMicros").asLong());
+            List<JsonNode> released = new ArrayList<>();
+            while (!pending.isEmpty() && pending.peek().path("ts").asLong() < completedMicros - windowMicros) {
+                released.add(pending.poll());
+            }
+            return released;
+        }
+
+        List<JsonNode> drain() {
+            List<JsonNode> rest = new ArrayList<>(pending.size());
+            while (!pending.isEmpty()) {
+                rest.add(pending.poll());
+            }
+            return rest;
+        }
+    }
+
+    /** Replayed and journaled latencies of one method, kept exactly. */
+    private static final class Recorder {
+        private long[] replayed = new long[1024];
+        private long[] original = new long[1024];
+        private int count;
+        private long errors;
+        private long originalErrors;
+
+        synchronized void record(long nanos, boolean ok, long originalNanos, boolean originalOk) {
+            if (count == replayed.length) {
+                replayed = Arrays.copyOf(replayed, count * 2);
+                original = Arrays.copyOf(original, count * 2);
+            }
+            replayed[count] = nanos;
+            original[count++] = originalNanos;
+            if (!ok) {
+                errors++;
+            }
+            if (!originalOk) {
+                originalErrors++;
+            }
+        }
+    }
+}
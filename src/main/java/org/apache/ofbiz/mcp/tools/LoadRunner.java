@@ -0,0 +1,341 @@
+package org.apache.ofbiz.mcp.tools;
+
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for the /mcp endpoint, for capacity planning without a
+ * real OFBiz instance.
+ *
+ * Sends a weighted mix of JSON-RPC calls in steps of increasing load, either
+ * at a target rate (open model: latency is measured from the time a request
+ * was due, so a stalled server is not hidden) or with a fixed number of
+ * concurrent callers (closed model). Each step reports throughput, error
+ * rate and p50/p99/p999 latency; the first step where the server falls
+ * behind the offered rate, the error rate passes 1% or p99 grows tenfold
+ * over the first step is reported as the saturation point.
+ *
+ * With --stub-port a {@link StubBackend} is started on that port; point the
+ * server's BACKEND_API_BASE at it, and raise RATE_LIMIT_MAX_REQUESTS or use
+ * --clients so the rate limiter does not cap the run.
+ *
+ * Usage:
+ * mvn exec:java -Dexec.mainClass="org.apache.ofbiz.mcp.tools.LoadRunner"
+ * -Dexec.args="--url http://localhost:3000/mcp --stub-port 8089 --rate 100,200,400,800"
+ * mvn exec:java -Dexec.mainClass="org.apache.ofbiz.mcp.tools.LoadRunner"
+ * -Dexec.args="--concurrency 8,32,128 --mix ping:1,createExamples:4 --stub-port 8089 --stub-latency-ms 20"
+ *
+ * Options (defaults in brackets):
+ * --url             MCP endpoint [http://localhost:3000/mcp]
+ * --rate            comma-separated request rates per second, one step each
+ * --concurrency     comma-separated caller counts, one step each (used when --rate is absent) [16]
+ * --step-seconds    length of each step [20]
+ * --warmup-seconds  unreported load before the first step [5]
+ * --mix             weighted calls: ping, tools/list, initialize or a tool name
+ *                   [ping:2,tools/list:1,createExamples:1,updateExamples:1,deleteExamples:1]
+ * --batch           items per createExamples/updateExamples/deleteExamples call [1]
+ * --clients         distinct bearer tokens to spread the load over [1]
+ * --stub-port       start a stub backend on this port
+ * --stub-examples   records in the stub's example listing [1000]
+ * --stub-latency-ms latency added by the stub [0]
+ * --stub-error-rate fraction of stub responses that are 500s [0]
+ */
+public class LoadRunner {
+
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final double MIN_THROUGHPUT_RATIO = 0.9;
+    private static final double MAX_P99_GROWTH = 10;
+
+    private final HttpClient client;
+    private final String url;
+    private final List<Call> calls;
+    private final int totalWeight;
+    private final String[] authHeaders;
+
+    private LoadRunner(String url, List<Call> calls, int clients, int maxConnections) {
+        ConnectionProvider connections = ConnectionProvider.builder("load-runner")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(connections)
+                .headers(h -> h.set("Content-Type", "application/json").set("Accept", "application/json"));
+        this.url = url;
+        this.calls = calls;
+        this.totalWeight = calls.stream().mapToInt(Call::weight).sum();
+        this.authHeaders = new String[Math.max(1, clients)];
+        for (int i = 0; i < authHeaders.length; i++) {
+            authHeaders[i] = "Bearer load-runner-" + i;
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:3000/mcp");
+        Duration step = Duration.ofSeconds(Long.parseLong(options.getOrDefault("step-seconds", "20")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "5")));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "1"));
+        List<Call> calls = parseMix(options.getOrDefault("mix",
+                "ping:2,tools/list:1,createExamples:1,updateExamples:1,deleteExamples:1"), batch);
+        boolean openModel = options.containsKey("rate");
+        long[] levels = Arrays.stream(options.getOrDefault(openModel ? "rate" : "concurrency", "16").split(","))
+                .mapToLong(s -> Long.parseLong(s.trim()))
+                .toArray();
+
+        StubBackend stub = null;
+        if (options.containsKey("stub-port")) {
+            stub = StubBackend.start(Integer.parseInt(options.get("stub-port")),
+                    Integer.parseInt(options.getOrDefault("stub-examples", "1000")));
+            stub.setLatency(Duration.ofMillis(Long.parseLong(options.getOrDefault("stub-latency-ms", "0"))));
+            stub.setErrorRate(Double.parseDouble(options.getOrDefault("stub-error-rate", "0")));
+            System.out.println("Stub backend listening on " + stub.baseUrl());
+        }
+
+        long maxLevel = Arrays.stream(levels).max().orElse(1);
+        LoadRunner runner = new LoadRunner(url, calls, Integer.parseInt(options.getOrDefault("clients", "1")),
+                (int) Math.min(10_000, Math.max(maxLevel, 100)));
+        System.out.println("Target: " + url + ", mix: " + calls + ", " + (openModel ? "rates/s: " : "callers: ")
+                + Arrays.toString(levels));
+        try {
+            if (!warmup.isZero()) {
+                System.out.println("Warming up for " + warmup.toSeconds() + "s...");
+                runner.runStep(openModel, levels[0], warmup);
+            }
+            System.out.println(String.format(Locale.ROOT, "%-8s %10s %12s %8s %9s %9s %9s %9s",
+                    "step", "offered", "achieved/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            List<StepResult> results = new ArrayList<>();
+            for (long level : levels) {
+                StepResult result = runner.runStep(openModel, level, step);
+                results.add(result);
+                System.out.println(result.format(results.size(), openModel));
+            }
+            reportSaturation(results, openModel);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private StepResult runStep(boolean openModel, long level, Duration length) {
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        Flux<Void> load = openModel ? openLoad(level, start, end, recorder) : closedLoad((int) level, end, recorder);
+        load.blockLast();
+        return recorder.result(level, System.nanoTime() - start);
+    }
+
+    /** Issues requests at {@code rate} per second, each timed from the moment it was due. */
+    private Flux<Void> openLoad(long rate, long start, long end, Recorder recorder) {
+        AtomicLong issued = new AtomicLong();
+        double intervalNanos = 1e9 / rate;
+        return Flux.interval(Duration.ofMillis(1), Schedulers.single())
+                .takeUntil(tick -> System.nanoTime() >= end)
+                .concatMapIterable(tick -> {
+                    long due = Math.min(rate * (Math.min(System.nanoTime(), end) - start) / 1_000_000_000L,
+                            rate * (end - start) / 1_000_000_000L);
+                    List<Long> starts = new ArrayList<>();
+                    for (long n = issued.get(); n < due; n++) {
+                        starts.add(start + (long) (n * intervalNanos));
+                    }
+                    issued.set(Math.max(issued.get(), due));
+                    return starts;
+                })
+                .flatMap(scheduled -> send(scheduled, recorder), Integer.MAX_VALUE);
+    }
+
+    /** Keeps {@code callers} requests outstanding until {@code end}. */
+    private Flux<Void> closedLoad(int callers, long end, Recorder recorder) {
+        return Flux.range(0, callers)
+                .flatMap(caller -> Mono.defer(() -> send(System.nanoTime(), recorder))
+                        .repeat(() -> System.nanoTime() < end), callers);
+    }
+
+    private Mono<Void> send(long scheduledNanos, Recorder recorder) {
+        Call call = pick();
+        String auth = authHeaders[ThreadLocalRandom.current().nextInt(authHeaders.length)];
+        return client.headers(h -> h.set("Authorization", auth))
+                .post()
+                .uri(url)
+                .send(ByteBufFlux.fromInbound(Mono.just(Unpooled.wrappedBuffer(call.body()))))
+                .responseSingle((resp, body) -> body.asString(StandardCharsets.UTF_8).defaultIfEmpty("")
+                        .map(text -> resp.status().code() == 200 && !text.contains("\"error\":{")
+                                && !text.contains("\"isError\":true")))
+                .onErrorReturn(false)
+                .doOnNext(ok -> recorder.record(call.name(), System.nanoTime() - scheduledNanos, ok))
+                .then();
+    }
+
+    private Call pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Call call : calls) {
+            r -= call.weight();
+            if (r < 0) {
+                return call;
+            }
+        }
+        return calls.get(calls.size() - 1);
+    }
+
+    private static void reportSaturation(List<StepResult> results, boolean openModel) {
+        if (results.isEmpty()) {
+            return;
+        }
+        double baselineP99 = Math.max(results.get(0).percentileMs(0.99), 0.001);
+        for (int i = 0; i < results.size(); i++) {
+            StepResult r = results.get(i);
+            String reason = null;
+            if (r.errorRate() > MAX_ERROR_RATE) {
+                reason = String.format(Locale.ROOT, "error rate %.1f%%", r.errorRate() * 100);
+            } else if (openModel && r.throughput() < r.level() * MIN_THROUGHPUT_RATIO) {
+                reason = String.format(Locale.ROOT, "throughput %.1f/s below offered %d/s", r.throughput(), r.level());
+            } else if (i > 0 && r.percentileMs(0.99) > baselineP99 * MAX_P99_GROWTH) {
+                reason = String.format(Locale.ROOT, "p99 %.1f ms vs %.1f ms at step 1", r.percentileMs(0.99),
+                        baselineP99);
+            }
+            if (reason != null) {
+                System.out.println("Saturation at step " + (i + 1) + " (" + r.level()
+                        + (openModel ? "/s" : " callers") + "): " + reason);
+                System.out.println(String.format(Locale.ROOT, "Highest sustained throughput: %.1f/s",
+                        results.subList(0, Math.max(1, i)).stream().mapToDouble(StepResult::throughput).max()
+                                .orElse(0)));
+                return;
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "No saturation up to %.1f/s; add higher steps to find it.",
+                results.get(results.size() - 1).throughput()));
+    }
+
+    private static List<Call> parseMix(String mix, int batch) {
+        List<Call> calls = new ArrayList<>();
+        AtomicLong ids = new AtomicLong();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String name = parts[0];
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (weight > 0) {
+                calls.add(new Call(name, weight, requestBody(name, batch, ids.incrementAndGet())));
+            }
+        }
+        if (calls.isEmpty()) {
+            throw new IllegalArgumentException("Empty call mix: " + mix);
+        }
+        return calls;
+    }
+
+    private static byte[] requestBody(String name, int batch, long id) {
+        String json = switch (name) {
+            case "ping", "tools/list" -> "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + name + "\"}";
+            case "initialize" -> "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"initialize\",\"params\":"
+                    + "{\"protocolVersion\":\"2024-11-05\",\"capabilities\":{},"
+                    + "\"clientInfo\":{\"name\":\"load-runner\",\"version\":\"1\"}}}";
+            default -> "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"tools/call\",\"params\":{\"name\":\""
+                    + name + "\",\"arguments\":" + toolArguments(name, batch) + "}}";
+        };
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String toolArguments(String tool, int batch) {
+        return switch (tool) {
+            case "createExamples" -> "{\"count\":" + batch + ",\"prefix\":\"Load\"}";
+            case "deleteExamples" -> "{\"count\":" + batch + "}";
+            case "updateExamples" -> {
+                StringBuilder ids = new StringBuilder();
+                for (int i = 0; i < batch; i++) {
+                    ids.append(i == 0 ? "" : ",").append('"').append(10000 + i).append('"');
+                }
+                yield "{\"ids\":[" + ids + "],\"description\":\"Load test\"}";
+            }
+            default -> "{}";
+        };
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    private record Call(String name, int weight, byte[] body) {
+        @Override
+        public String toString() {
+            return name + ":" + weight;
+        }
+    }
+
+    /** Latencies of one step, kept exactly so percentiles need no binning. */
+    private static final class Recorder {
+        private final Map<String, long[]> errorsByCall = new LinkedHashMap<>();
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private long errors;
+
+        synchronized void record(String call, long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+                errorsByCall.computeIfAbsent(call, c -> new long[1])[0]++;
+            }
+        }
+
+        synchronized StepResult result(long level, long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Long> perCall = new LinkedHashMap<>();
+            errorsByCall.forEach((call, n) -> perCall.put(call, n[0]));
+            return new StepResult(level, sorted, errors, elapsedNanos, perCall);
+        }
+    }
+
+    private record StepResult(long level, long[] sortedNanos, long errors, long elapsedNanos,
+            Map<String, Long> errorsByCall) {
+
+        double throughput() {
+            return sortedNanos.length * 1e9 / elapsedNanos;
+        }
+
+        double errorRate() {
+            return sortedNanos.length == 0 ? 0 : (double) errors / sortedNanos.length;
+        }
+
+        double percentileMs(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+
+        String format(int step, boolean openModel) {
+            String line = String.format(Locale.ROOT, "%-8d %10s %12.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f", step,
+                    level + (openModel ? "/s" : " c"), throughput(), errorRate() * 100, percentileMs(0.5),
+                    percentileMs(0.99), percentileMs(0.999), percentileMs(1.0));
+            return errorsByCall.isEmpty() ? line : line + "  errors by call: " + errorsByCall;
+        }
+    }
+}
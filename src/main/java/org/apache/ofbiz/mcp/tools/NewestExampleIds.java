@@ -0,0 +1,199 @@
+package org.apache.ofbiz.mcp.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Picks the {@code count} highest numeric ids out of an
+ * {@code /rest/example-rest/example} listing while it is being received.
+ *
+ * The body is fed buffer by buffer into Jackson's non-blocking parser and
+ * only {@code data.exampleList[].exampleId} values are looked at; they are
+ * compared by numeric value in place and copied only when they enter a
+ * bounded min-heap. Memory use depends on {@code count}, not on the size of
+ * the listing. Ids are returned exactly as the backend sent them, leading
+ * zeros included, whatever their length. Ids that are not numeric (such as
+ * the EX01 demo records) can never be the newest and are skipped.
+ */
+final class NewestExampleIds {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int INITIAL_HEAP_CAPACITY = 64;
+
+    private final int count;
+    private final JsonParser parser;
+    private char[][] heap;
+    private int size;
+
+    private NewestExampleIds(int count) {
+        this.count = count;
+        this.heap = new char[Math.min(Math.max(count, 0), INITIAL_HEAP_CAPACITY)][];
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Response extractor yielding up to {@code count} ids, highest first.
+     */
+    static Function<ClientResponse, Mono<List<String>>> newest(int count) {
+        return resp -> Mono.defer(() -> {
+            NewestExampleIds selector = new NewestExampleIds(count);
+            return resp.body(BodyExtractors.toDataBuffers())
+                    .doOnNext(selector::feed)
+                    .then(Mono.fromCallable(selector::finish))
+                    .doFinally(signal -> selector.close());
+        });
+    }
+
+    private void feed(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+            while (it.hasNext()) {
+                ByteBuffer chunk = it.next();
+                ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk);
+                consumeAvailableTokens();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private List<String> finish() throws IOException {
+        parser.getNonBlockingInputFeeder().endOfInput();
+        consumeAvailableTokens();
+        char[][] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, NewestExampleIds::compare);
+        List<String> ids = new ArrayList<>(size);
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            ids.add(new String(sorted[i]));
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    private void consumeAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if ((token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT)
+                    && "exampleId".equals(parser.currentName()) && isExampleListEntry()) {
+                offerCurrentId();
+            }
+        }
+    }
+
+    /** True when the current value sits in {@code data.exampleList[i]}. */
+    private boolean isExampleListEntry() {
+        JsonStreamContext entry = parser.getParsingContext();
+        JsonStreamContext list = entry.getParent();
+        if (list == null || !list.inArray()) {
+            return false;
+        }
+        JsonStreamContext data = list.getParent();
+        return data != null && "exampleList".equals(data.getCurrentName())
+                && data.getParent() != null && "data".equals(data.getParent().getCurrentName());
+    }
+
+    /** Offers the current token if it is a non-negative integer, copying it only if it is kept. */
+    private void offerCurrentId() throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0) {
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] < '0' || chars[i] > '9') {
+                return;
+            }
+        }
+        if (size < count) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(count, heap.length * 2L));
+            }
+            char[] id = Arrays.copyOfRange(chars, offset, offset + length);
+            int i = size++;
+            while (i > 0 && compare(heap[(i - 1) >>> 1], id) > 0) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = id;
+        } else if (size > 0 && compare(chars, offset, length, heap[0]) > 0) {
+            char[] id = Arrays.copyOfRange(chars, offset, offset + length);
+            int i = 0;
+            for (;;) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                    child++;
+                }
+                if (compare(heap[child], id) >= 0) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = id;
+        }
+    }
+
+    private static int compare(char[] a, char[] b) {
+        return compare(a, 0, a.length, b);
+    }
+
+    /**
+     * Orders digit strings by numeric value, ignoring leading zeros, and ids
+     * of equal value ("7", "007") by length, so that only equal ids compare 0.
+     */
+    private static int compare(char[] a, int offset, int length, char[] b) {
+        int aStart = offset;
+        while (aStart < offset + length - 1 && a[aStart] == '0') {
+            aStart++;
+        }
+        int bStart = 0;
+        while (bStart < b.length - 1 && b[bStart] == '0') {
+            bStart++;
+        }
+        int digits = offset + length - aStart;
+        int byDigits = Integer.compare(digits, b.length - bStart);
+        if (byDigits != 0) {
+            return byDigits;
+        }
+        for (int i = 0; i < digits; i++) {
+            int byDigit = Character.compare(a[aStart + i], b[bStart + i]);
+            if (byDigit != 0) {
+                return byDigit;
+            }
+        }
+        return Integer.compare(length, b.length);
+    }
+}
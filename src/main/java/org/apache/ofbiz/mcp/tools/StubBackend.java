@@ -0,0 +1,178 @@
+package org.apache.ofbiz.mcp.tools;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the OFBiz REST endpoints used by the tools, for
+ * benchmarks and load tests that must not touch a real ERP.
+ *
+ * Serves {@code /rest/example-rest/example} (GET, POST, PUT, DELETE),
+ * {@code /rest/services/findProductById} and {@code /rest/auth/token} over
+ * plain HTTP. The example listing is generated once with a fixed number of
+ * records and writes are acknowledged without changing it, so every run
+ * sees the same payload sizes. Latency, error rate and the size of create
+ * responses can be changed while running. With a token lifetime set, the
+ * stub issues expiring JWTs and answers 401 to calls without a live one.
+ */
+public class StubBackend implements AutoCloseable {
+
+    private static final String JSON = "application/json";
+    private static final byte[] OK = "{\"statusCode\":200,\"statusDescription\":\"OK\",\"data\":{}}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UNAUTHORIZED = "{\"statusCode\":401,\"statusDescription\":\"Unauthorized\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVER_ERROR =
+            "{\"statusCode\":500,\"statusDescription\":\"Internal Server Error\",\"errorMessage\":\"injected\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final DisposableServer server;
+    private final byte[] listing;
+    private final AtomicLong nextId;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile String padding = "";
+    private volatile Duration tokenTtl;
+    private final Map<String, Long> tokenExpiries = new ConcurrentHashMap<>();
+    private final AtomicLong tokensIssued = new AtomicLong();
+
+    private StubBackend(int port, int examples) {
+        this.listing = listing(examples);
+        this.nextId = new AtomicLong(10000L + examples);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(port)
+                .route(routes -> routes
+                        .get("/rest/example-rest/example", (req, res) -> respond(req, res, () -> listing))
+                        .post("/rest/example-rest/example", (req, res) -> respond(req, res, this::created))
+                        .put("/rest/example-rest/example", (req, res) -> respond(req, res, () -> OK))
+                        .delete("/rest/example-rest/example", (req, res) -> respond(req, res, () -> OK))
+                        .get("/rest/services/findProductById", (req, res) -> respond(req, res, StubBackend::product))
+                        .post("/rest/auth/token", (req, res) -> respond(req, res, this::token)))
+                .bindNow();
+    }
+
+    /**
+     * Starts a stub whose listing holds {@code examples} numeric ids plus the
+     * EX01/EX02 demo records. Port 0 picks a free port.
+     */
+    public static StubBackend start(int port, int examples) {
+        return new StubBackend(port, examples);
+    }
+
+    /** Value for BACKEND_API_BASE. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /** Delay added before every response. */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /** Fraction of requests, 0 to 1, answered with a 500. */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /** Extra bytes carried by every create response, to vary its size. */
+    public void setResponsePadding(int bytes) {
+        this.padding = "x".repeat(Math.max(0, bytes));
+    }
+
+    /** Lifetime of issued tokens; once set, calls need a live one. Null accepts any call. */
+    public void setTokenTtl(Duration ttl) {
+        this.tokenTtl = ttl;
+    }
+
+    /** Tokens handed out by the token endpoint so far. */
+    public long getTokensIssued() {
+        return tokensIssued.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerRequest req, HttpServerResponse res, Supplier<byte[]> body) {
+        Duration delay = latency;
+        boolean authorized = isAuthorized(req);
+        Mono<Void> reply = Mono.defer(() -> {
+            if (!authorized) {
+                return res.status(HttpResponseStatus.UNAUTHORIZED).header("Content-Type", JSON)
+                        .sendByteArray(Mono.just(UNAUTHORIZED)).then();
+            }
+            boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+            return res.status(fail ? HttpResponseStatus.INTERNAL_SERVER_ERROR : HttpResponseStatus.OK)
+                    .header("Content-Type", JSON)
+                    .sendByteArray(Mono.just(fail ? SERVER_ERROR : body.get()))
+                    .then();
+        });
+        Mono<Void> drained = req.receive().then();
+        return delay.isZero() ? drained.then(reply) : drained.then(Mono.delay(delay)).then(reply);
+    }
+
+    private byte[] created() {
+        return ("{\"statusCode\":200,\"statusDescription\":\"OK\",\"data\":{\"exampleId\":\""
+                + nextId.getAndIncrement() + "\"},\"padding\":\"" + padding + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] product() {
+        return "{\"statusCode\":200,\"data\":{\"productsList\":[\"WG-1111\"]}}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean isAuthorized(HttpServerRequest req) {
+        if (tokenTtl == null || req.uri().startsWith("/rest/auth/token")) {
+            return true;
+        }
+        String auth = req.requestHeaders().get("Authorization");
+        Long expiry = auth == null || !auth.startsWith("Bearer ") ? null : tokenExpiries.get(auth.substring(7));
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    private byte[] token() {
+        tokensIssued.incrementAndGet();
+        Duration ttl = tokenTtl;
+        String token;
+        if (ttl == null) {
+            token = "stub-" + System.nanoTime();
+        } else {
+            long expiry = System.currentTimeMillis() + ttl.toMillis();
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            String claims = "{\"exp\":" + expiry / 1000 + ",\"n\":" + System.nanoTime() + "}";
+            token = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                    + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".stub";
+            tokenExpiries.put(token, expiry);
+        }
+        return ("{\"statusCode\":200,\"data\":{\"access_token\":\"" + token + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] listing(int examples) {
+        StringBuilder json = new StringBuilder(64 + examples * 48);
+        json.append("{\"statusCode\":200,\"data\":{\"exampleList\":[")
+                .append("{\"exampleId\":\"EX01\",\"exampleName\":\"Demo 1\"},")
+                .append("{\"exampleId\":\"EX02\",\"exampleName\":\"Demo 2\"}");
+        for (int i = 0; i < examples; i++) {
+            long id = 10000L + i;
+            json.append(",{\"exampleId\":\"").append(id).append("\",\"exampleName\":\"Example ").append(id)
+                    .append("\"}");
+        }
+        return json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,244 @@
+package org.apache.ofbiz.mcp.tools;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.scheduling.FairQueue;
+import org.apache.ofbiz.mcp.scheduling.FairShare;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One bulkhead per tool, so a tool that is slow or flooded with calls cannot
+ * take capacity from the others.
+ *
+ * A tool runs at most TOOL_MAX_CONCURRENCY calls at once (or its entry in
+ * TOOL_CONCURRENCY_OVERRIDES), and up to TOOL_MAX_QUEUE more wait in a
+ * {@link FairQueue}, taking turns by the {@link FairShare} of their caller.
+ * When the queue is full a call is rejected at once with
+ * {@link ToolRejectedException}, unless another caller has more calls
+ * waiting, in which case that caller's newest call is rejected instead. Tools are started on their own executor
+ * rather than the request thread: virtual threads when the JVM has them,
+ * otherwise a pool per tool sized to its concurrency, so a tool that blocks
+ * only ever blocks its own threads. Protocol methods such as ping,
+ * initialize and tools/list never pass through here.
+ */
+@Component
+public class ToolBulkheads {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolBulkheads.class);
+
+    private final int defaultConcurrency;
+    private final int maxQueued;
+    private final Map<String, Integer> concurrencyOverrides;
+    private final ExecutorService virtualThreads;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public ToolBulkheads(AppConfig appConfig) {
+        this.defaultConcurrency = Math.max(1, appConfig.getToolMaxConcurrency());
+        this.maxQueued = Math.max(0, appConfig.getToolMaxQueue());
+        this.concurrencyOverrides = Map.copyOf(appConfig.getToolConcurrencyOverrides());
+        this.virtualThreads = newVirtualThreadExecutor();
+    }
+
+    /**
+     * Subscribes to {@code execution} on the executor of {@code tool} once
+     * its bulkhead has room. Cancelling the returned Mono frees the queue slot
+     * or cancels the running call.
+     */
+    public <T> Mono<T> execute(String tool, Mono<T> execution) {
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(tool, this::newBulkhead);
+        return Mono.create(sink -> bulkhead.submit(new Call<>(bulkhead, execution, sink)));
+    }
+
+    public int getRunning(String tool) {
+        Bulkhead bulkhead = bulkheads.get(tool);
+        return bulkhead == null ? 0 : bulkhead.running;
+    }
+
+    public int getQueued(String tool) {
+        Bulkhead bulkhead = bulkheads.get(tool);
+        return bulkhead == null ? 0 : bulkhead.queueSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(b -> b.scheduler.dispose());
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    private Bulkhead newBulkhead(String tool) {
+        int concurrency = Math.max(1, concurrencyOverrides.getOrDefault(tool, defaultConcurrency));
+        Scheduler scheduler = virtualThreads != null
+                ? Schedulers.fromExecutorService(virtualThreads, "tool-" + tool)
+                : Schedulers.fromExecutorService(Executors.newFixedThreadPool(concurrency, threadFactory(tool)),
+                        "tool-" + tool);
+        return new Bulkhead(tool, concurrency, scheduler);
+    }
+
+    private static ThreadFactory threadFactory(String tool) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "tool-" + tool + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() on Java 21+, null before. */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads unavailable, tools run on bounded pools");
+            return null;
+        }
+    }
+
+    private final class Bulkhead {
+        final String tool;
+        final int maxConcurrency;
+        final Scheduler scheduler;
+        final FairQueue<Call<?>> queue = new FairQueue<>();
+        volatile int running;
+
+        Bulkhead(String tool, int maxConcurrency, Scheduler scheduler) {
+            this.tool = tool;
+            this.maxConcurrency = maxConcurrency;
+            this.scheduler = scheduler;
+        }
+
+        void submit(Call<?> call) {
+            Call<?> evicted = null;
+            synchronized (this) {
+                // Never ahead of a waiting call, whatever the count says
+                if (running >= maxConcurrency || !queue.isEmpty()) {
+                    if (queue.size() >= maxQueued) {
+                        evicted = queue.evictForNewcomer(call.share);
+                        if (evicted == null) {
+                            call.sink.error(new ToolRejectedException(tool, maxConcurrency, maxQueued));
+                            return;
+                        }
+                    }
+                    queue.offer(call, call.share);
+                    if (evicted == null) {
+                        return;
+                    }
+                } else {
+                    running++;
+                }
+            }
+            if (evicted != null) {
+                evicted.reject(new ToolRejectedException(tool, maxConcurrency, maxQueued));
+            } else {
+                call.start();
+            }
+        }
+
+        void release() {
+            Call<?> next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            next.start();
+        }
+
+        synchronized boolean dequeue(Call<?> call) {
+            return queue.remove(call, call.share);
+        }
+
+        synchronized int queueSize() {
+            return queue.size();
+        }
+    }
+
+    private static final class Call<T> {
+        private static final int QUEUED = 0, RUNNING = 1, DONE = 2;
+
+        final Bulkhead bulkhead;
+        final Mono<T> source;
+        final MonoSink<T> sink;
+        final FairShare share;
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        volatile Disposable upstream;
+
+        Call(Bulkhead bulkhead, Mono<T> source, MonoSink<T> sink) {
+            this.bulkhead = bulkhead;
+            this.source = source;
+            this.sink = sink;
+            this.share = FairShare.of(sink.contextView());
+            sink.onCancel(this::cancel);
+        }
+
+        void start() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                // Cancelled while queued
+                bulkhead.release();
+                return;
+            }
+            upstream = source.subscribeOn(bulkhead.scheduler).subscribe(
+                    value -> {
+                        if (finish()) {
+                            sink.success(value);
+                        }
+                    },
+                    error -> {
+                        if (finish()) {
+                            sink.error(error);
+                        }
+                    },
+                    () -> {
+                        if (finish()) {
+                            sink.success();
+                        }
+                    },
+                    Context.of(sink.contextView()));
+        }
+
+        /** Fails the call, already taken out of the queue, unless it was cancelled meanwhile. */
+        void reject(Throwable error) {
+            if (state.compareAndSet(QUEUED, DONE)) {
+                sink.error(error);
+            }
+        }
+
+        void cancel() {
+            if (state.compareAndSet(QUEUED, DONE)) {
+                bulkhead.dequeue(this);
+            } else if (state.compareAndSet(RUNNING, DONE)) {
+                Disposable d = upstream;
+                if (d != null) {
+                    d.dispose();
+                }
+                bulkhead.release();
+            }
+        }
+
+        private boolean finish() {
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                return false;
+            }
+            bulkhead.release();
+            return true;
+        }
+    }
+}
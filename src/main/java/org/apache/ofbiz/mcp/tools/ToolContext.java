@@ -0,0 +1,50 @@
+package org.apache.ofbiz.mcp.tools;
+
+/**
+ * Per-call state handed to a tool: the caller's downstream token and, when
+ * the client asked for a streamed response, where to report progress.
+ */
+public final class ToolContext {
+
+    private static final ToolContext NONE = new ToolContext(null, null);
+
+    private final String downstreamToken;
+    private final ProgressListener progressListener;
+
+    private ToolContext(String downstreamToken, ProgressListener progressListener) {
+        this.downstreamToken = downstreamToken;
+        this.progressListener = progressListener;
+    }
+
+    public static ToolContext of(String downstreamToken) {
+        return downstreamToken == null ? NONE : new ToolContext(downstreamToken, null);
+    }
+
+    public static ToolContext streaming(String downstreamToken, ProgressListener progressListener) {
+        return new ToolContext(downstreamToken, progressListener);
+    }
+
+    public String getDownstreamToken() {
+        return downstreamToken;
+    }
+
+    /**
+     * True when progress reports reach the client while the call is still
+     * running; tools may then report per-item results instead of keeping
+     * them for the final result.
+     */
+    public boolean isStreaming() {
+        return progressListener != null;
+    }
+
+    public void progress(long done, long total, String message) {
+        if (progressListener != null) {
+            progressListener.onProgress(done, total, message);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long done, long total, String message);
+    }
+}
@@ -1,6 +1,7 @@
 package org.apache.ofbiz.mcp.tools;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Mono;
+
 import java.util.Map;
 
 public interface ToolHandler {
@@ -8,5 +9,19 @@ public interface ToolHandler {
 
     Map<String, Object> getDefinition();
 
-    Object execute(Map<String, Object> arguments, String downstreamToken);
+    /**
+     * Runs the tool without blocking the calling thread. The returned Mono
+     * completes with the MCP tool result once all backend calls are done;
+     * on a streamed call, progress is reported through {@code context} as
+     * they finish.
+     */
+    Mono<Object> executeAsync(Map<String, Object> arguments, ToolContext context);
+
+    /**
+     * Blocking variant for callers outside a request thread, such as
+     * {@link ExampleRunner}.
+     */
+    default Object execute(Map<String, Object> arguments, String downstreamToken) {
+        return executeAsync(arguments, ToolContext.of(downstreamToken)).block();
+    }
 }
@@ -0,0 +1,77 @@
+package org.apache.ofbiz.mcp.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ofbiz.mcp.model.PrecomputedJson;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The set of tools served by this MCP server.
+ *
+ * The tools/list result is built and serialized once, and again only when a
+ * tool is registered or removed; each change publishes a
+ * {@link ToolsChangedEvent} so connected clients can be told to refresh.
+ */
+@Component
+public class ToolRegistry {
+
+    private final Map<String, ToolHandler> tools = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper;
+    private final ApplicationEventPublisher events;
+    private volatile PrecomputedJson toolsList;
+
+    public ToolRegistry(List<ToolHandler> toolHandlers, ObjectMapper mapper, ApplicationEventPublisher events) {
+        this.mapper = mapper;
+        this.events = events;
+        toolHandlers.forEach(t -> tools.put(t.getName(), t));
+        rebuild();
+    }
+
+    public ToolHandler get(String name) {
+        return name == null ? null : tools.get(name);
+    }
+
+    public boolean contains(String name) {
+        return tools.containsKey(name);
+    }
+
+    /** The pre-serialized tools/list result. */
+    public PrecomputedJson toolsList() {
+        return toolsList;
+    }
+
+    public void register(ToolHandler tool) {
+        tools.put(tool.getName(), tool);
+        changed();
+    }
+
+    /** Adds several tools with a single rebuild and change event. */
+    public void registerAll(Collection<? extends ToolHandler> newTools) {
+        if (newTools.isEmpty()) {
+            return;
+        }
+        newTools.forEach(t -> tools.put(t.getName(), t));
+        changed();
+    }
+
+    public void unregister(String name) {
+        if (tools.remove(name) != null) {
+            changed();
+        }
+    }
+
+    private void changed() {
+        rebuild();
+        events.publishEvent(new ToolsChangedEvent(toolsList.getEtag()));
+    }
+
+    private synchronized void rebuild() {
+        List<Map<String, Object>> definitions = tools.values().stream().map(ToolHandler::getDefinition).toList();
+        toolsList = PrecomputedJson.of(mapper, Map.of("tools", definitions));
+    }
+}
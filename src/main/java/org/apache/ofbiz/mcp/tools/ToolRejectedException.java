@@ -0,0 +1,18 @@
+package org.apache.ofbiz.mcp.tools;
+
+/**
+ * Raised when a tool's bulkhead is full, see {@link ToolBulkheads}.
+ */
+public class ToolRejectedException extends RuntimeException {
+
+    private final String tool;
+
+    public ToolRejectedException(String tool, int maxConcurrency, int maxQueued) {
+        super("Tool " + tool + " is busy (" + maxConcurrency + " running, " + maxQueued + " queued)");
+        this.tool = tool;
+    }
+
+    public String getTool() {
+        return tool;
+    }
+}
@@ -0,0 +1,7 @@
+package org.apache.ofbiz.mcp.tools;
+
+/**
+ * Published by {@link ToolRegistry} whenever a tool is added or removed.
+ */
+public record ToolsChangedEvent(String etag) {
+}
@@ -1,8 +1,10 @@
 package org.apache.ofbiz.mcp.tools;
 
-import org.springframework.web.reactive.function.client.WebClient;
-import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.time.Instant;
 
 import java.util.List;
@@ -11,12 +13,10 @@ import java.util.Map;
 @Component
 public class UpdateExamplesTool implements ToolHandler {
 
-    private final AppConfig appConfig;
-    private final WebClient webClient;
+    private final BackendClient backendClient;
 
-    public UpdateExamplesTool(AppConfig appConfig, WebClient.Builder builder) {
-        this.appConfig = appConfig;
-        this.webClient = builder.baseUrl(appConfig.getBackendApiBase()).build();
+    public UpdateExamplesTool(BackendClient backendClient) {
+        this.backendClient = backendClient;
     }
 
     @Override
@@ -37,33 +37,25 @@ public class UpdateExamplesTool implements ToolHandler {
     }
 
     @Override
-    public Object execute(Map<String, Object> arguments, String downstreamToken) {
+    public Mono<Object> executeAsync(Map<String, Object> arguments, ToolContext context) {
         List<String> ids = (List<String>) arguments.getOrDefault("ids", List.of());
         String descriptionTemplate = (String) arguments.getOrDefault("description", "Updated at " + Instant.now());
 
-        List<String> results = reactor.core.publisher.Flux.fromIterable(ids)
+        Flux<String> results = Flux.fromIterable(ids)
                 .flatMap(id -> {
                     String description = descriptionTemplate + " " + Instant.now();
                     Map<String, Object> payload = Map.of(
                             "exampleId", id,
                             "description", description);
 
-                    return webClient.put()
-                            .uri("/rest/example-rest/example")
-                            .header("Authorization", "Bearer " + appConfig.getBackendAccessToken())
-                            .bodyValue(payload)
-                            .retrieve()
-                            .toBodilessEntity()
+                    return backendClient.exchange(HttpMethod.PUT, "/rest/example-rest/example", Map.of(), payload,
+                                    BackendClient.toBodiless())
                             .thenReturn(id)
-                            .onErrorResume(e -> reactor.core.publisher.Mono
+                            .onErrorResume(BatchResults::isItemError, e -> Mono
                                     .just("Error updating example " + id + ": " + e.getMessage()));
-                })
-                .collectList()
-                .block();
-
-        String resultText = "Updated " + results.size() + " examples. IDs: " + results;
-
-        return Map.of("content", java.util.List.of(
-                Map.of("type", "text", "text", resultText)));
+                }, backendClient.maxConcurrency());
+        return BatchResults.report(results, ids.size(), context,
+                all -> "Updated " + all.size() + " examples. IDs: " + all,
+                done -> "Updated " + done + " examples. IDs were sent as progress notifications.");
     }
 }
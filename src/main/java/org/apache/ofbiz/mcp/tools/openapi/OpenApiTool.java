@@ -0,0 +1,202 @@
+package org.apache.ofbiz.mcp.tools.openapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.apache.ofbiz.mcp.backend.BackendRequest;
+import org.apache.ofbiz.mcp.tools.ToolContext;
+import org.apache.ofbiz.mcp.tools.ToolHandler;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tool backed by one operation of an OpenAPI document.
+ *
+ * The tool definition is built when the tool is created, since tools/list
+ * needs it anyway. The {@link RequestPlan} is only compiled on the first
+ * call, so operations that are never used cost no more than their
+ * definition.
+ */
+final class OpenApiTool implements ToolHandler {
+
+    /** Argument carrying a request body that is not exposed property by property. */
+    static final String BODY_ARGUMENT = "body";
+
+    private final String name;
+    private final HttpMethod method;
+    private final String path;
+    private final List<JsonNode> parameters;
+    private final JsonNode requestBody;
+    private final Set<String> flattened = new HashSet<>();
+    private final Map<String, Object> definition;
+    private final BackendClient backendClient;
+    private final ObjectMapper mapper;
+    private volatile RequestPlan plan;
+
+    /**
+     * @param parameters  the operation's parameters, references resolved
+     * @param requestBody the operation's request body, references resolved, or null
+     */
+    OpenApiTool(String name, HttpMethod method, String path, JsonNode operation, List<JsonNode> parameters,
+            JsonNode requestBody, BackendClient backendClient, ObjectMapper mapper) {
+        this.name = name;
+        this.method = method;
+        this.path = path;
+        this.parameters = parameters;
+        this.requestBody = requestBody;
+        this.backendClient = backendClient;
+        this.mapper = mapper;
+        this.definition = Map.of(
+                "name", name,
+                "description", description(operation),
+                "inputSchema", inputSchema());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> getDefinition() {
+        return definition;
+    }
+
+    @Override
+    public Mono<Object> executeAsync(Map<String, Object> arguments, ToolContext context) {
+        RequestPlan requestPlan = plan();
+        BackendRequest request = requestPlan.bind(arguments == null ? Map.of() : arguments);
+        Mono<String> call = requestPlan.method() == HttpMethod.GET
+                ? backendClient.read(request, "text", BackendClient.toStringBody())
+                : backendClient.exchange(request, BackendClient.toStringBody());
+        return call.defaultIfEmpty("")
+                .<Object>map(text -> result(text, false))
+                .onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(result(e.getStatusCode().value() + " " + e.getResponseBodyAsString(), true)));
+    }
+
+    private RequestPlan plan() {
+        RequestPlan p = plan;
+        if (p == null) {
+            synchronized (this) {
+                p = plan;
+                if (p == null) {
+                    p = RequestPlan.compile(method, path, parameters, requestBody, flattened, mapper);
+                    plan = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Path and query parameters become arguments of the same name. A JSON
+     * query parameter or request body whose schema is an object has its
+     * properties exposed as arguments instead, unless one of them clashes
+     * with an argument that already exists.
+     */
+    private ObjectNode inputSchema() {
+        ObjectNode properties = JsonNodeFactory.instance.objectNode();
+        ArrayNode required = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode param : parameters) {
+            String in = param.path("in").asText();
+            if (!in.equals("path") && !in.equals("query")) {
+                continue;
+            }
+            String paramName = param.path("name").asText();
+            JsonNode schema = parameterSchema(param);
+            boolean paramRequired = param.path("required").asBoolean(in.equals("path"));
+            if (param.has("content") && tryFlatten(paramName, schema, properties, required, paramRequired)) {
+                continue;
+            }
+            properties.set(paramName, describe(schema, param.path("description")));
+            if (paramRequired) {
+                required.add(paramName);
+            }
+        }
+        if (requestBody != null) {
+            JsonNode schema = bodySchema(requestBody);
+            boolean bodyRequired = requestBody.path("required").asBoolean(false);
+            if (!tryFlatten(BODY_ARGUMENT, schema, properties, required, bodyRequired)) {
+                properties.set(BODY_ARGUMENT, describe(schema, requestBody.path("description")));
+                if (bodyRequired) {
+                    required.add(BODY_ARGUMENT);
+                }
+            }
+        }
+        ObjectNode inputSchema = JsonNodeFactory.instance.objectNode().put("type", "object");
+        inputSchema.set("properties", properties);
+        if (!required.isEmpty()) {
+            inputSchema.set("required", required);
+        }
+        return inputSchema;
+    }
+
+    private boolean tryFlatten(String slot, JsonNode schema, ObjectNode properties, ArrayNode required,
+            boolean slotRequired) {
+        JsonNode nested = schema.path("properties");
+        if (!nested.isObject() || nested.isEmpty()) {
+            return false;
+        }
+        for (Iterator<String> it = nested.fieldNames(); it.hasNext();) {
+            if (properties.has(it.next())) {
+                return false;
+            }
+        }
+        properties.setAll((ObjectNode) nested);
+        if (slotRequired) {
+            schema.path("required").forEach(required::add);
+        }
+        flattened.add(slot);
+        return true;
+    }
+
+    private static JsonNode describe(JsonNode schema, JsonNode description) {
+        if (!schema.isObject() || !description.isTextual() || schema.has("description")) {
+            return schema;
+        }
+        return ((ObjectNode) schema.deepCopy()).put("description", description.asText());
+    }
+
+    private static String description(JsonNode operation) {
+        String summary = operation.path("summary").asText("");
+        return summary.isEmpty() ? operation.path("description").asText("") : summary;
+    }
+
+    private static Map<String, Object> result(String text, boolean isError) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("content", List.of(Map.of("type", "text", "text", text)));
+        if (isError) {
+            result.put("isError", true);
+        }
+        return result;
+    }
+
+    static JsonNode parameterSchema(JsonNode param) {
+        if (param.has("schema")) {
+            return param.get("schema");
+        }
+        return firstContentSchema(param);
+    }
+
+    static JsonNode bodySchema(JsonNode requestBody) {
+        return firstContentSchema(requestBody);
+    }
+
+    private static JsonNode firstContentSchema(JsonNode node) {
+        Iterator<JsonNode> media = node.path("content").elements();
+        JsonNode schema = media.hasNext() ? media.next().path("schema") : null;
+        return schema == null || schema.isMissingNode() ? JsonNodeFactory.instance.objectNode() : schema;
+    }
+}
@@ -0,0 +1,171 @@
+package org.apache.ofbiz.mcp.tools.openapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.apache.ofbiz.mcp.backend.BackendClient;
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.tools.ToolHandler;
+import org.apache.ofbiz.mcp.tools.ToolRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Registers a tool for every operation of the OpenAPI document named by
+ * OPENAPI_SPEC_PATH and of every OpenAPI document in the tools folder.
+ *
+ * A tool is named after the operation's operationId; an id used by several
+ * operations of the same document gets the lower-case HTTP method appended.
+ * Operations whose tool name is already taken, e.g. by a hand-written tool,
+ * are skipped.
+ */
+@Component
+public class OpenApiToolLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenApiToolLoader.class);
+    private static final Set<String> METHODS = Set.of("get", "put", "post", "delete", "patch");
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private final AppConfig appConfig;
+    private final ToolRegistry registry;
+    private final BackendClient backendClient;
+    private final ObjectMapper mapper;
+
+    public OpenApiToolLoader(AppConfig appConfig, ToolRegistry registry, BackendClient backendClient,
+            ObjectMapper mapper) {
+        this.appConfig = appConfig;
+        this.registry = registry;
+        this.backendClient = backendClient;
+        this.mapper = mapper;
+    }
+
+    @PostConstruct
+    public void load() {
+        Map<String, ToolHandler> generated = new LinkedHashMap<>();
+        for (Path spec : specFiles()) {
+            try {
+                JsonNode document = mapper.readTree(spec.toFile());
+                if (!document.has("paths")) {
+                    continue;
+                }
+                for (ToolHandler tool : toolsFrom(document)) {
+                    if (registry.contains(tool.getName()) || generated.putIfAbsent(tool.getName(), tool) != null) {
+                        log.warn("Skipping operation {} from {}: a tool with that name already exists",
+                                tool.getName(), spec);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Skipping OpenAPI document {}: {}", spec, e.getMessage());
+            }
+        }
+        registry.registerAll(generated.values());
+        log.info("Registered {} tools from OpenAPI documents", generated.size());
+    }
+
+    private List<ToolHandler> toolsFrom(JsonNode document) {
+        SchemaResolver resolver = new SchemaResolver(document);
+        String basePath = basePath(document);
+
+        Map<String, Integer> idUses = new HashMap<>();
+        forEachOperation(document, (method, path, operation) ->
+                idUses.merge(operationName(method, path, operation), 1, Integer::sum));
+
+        List<ToolHandler> tools = new ArrayList<>();
+        forEachOperation(document, (method, path, operation) -> {
+            String name = operationName(method, path, operation);
+            if (idUses.get(name) > 1) {
+                name = name + "_" + method;
+            }
+            List<JsonNode> parameters = new ArrayList<>();
+            document.path("paths").path(path).path("parameters").forEach(p -> parameters.add(resolver.resolve(p)));
+            operation.path("parameters").forEach(p -> parameters.add(resolver.resolve(p)));
+            JsonNode requestBody = operation.has("requestBody") ? resolver.resolve(operation.get("requestBody")) : null;
+            tools.add(new OpenApiTool(sanitize(name), HttpMethod.valueOf(method.toUpperCase(Locale.ROOT)),
+                    basePath + path, operation, List.copyOf(parameters), requestBody, backendClient, mapper));
+        });
+        return tools;
+    }
+
+    private List<Path> specFiles() {
+        List<Path> files = new ArrayList<>();
+        String specPath = appConfig.getOpenApiSpecPath();
+        if (specPath != null && !specPath.isBlank()) {
+            Path spec = Path.of(specPath);
+            String configPath = System.getProperty("mcp.config.path");
+            if (!spec.isAbsolute() && !Files.exists(spec) && configPath != null) {
+                spec = Path.of(configPath).resolve(specPath);
+            }
+            if (Files.isRegularFile(spec)) {
+                files.add(spec);
+            } else {
+                log.info("OpenAPI document {} not found, no tools generated from it", specPath);
+            }
+        }
+        String toolsPath = System.getProperty("mcp.tools.path");
+        if (toolsPath != null && Files.isDirectory(Path.of(toolsPath))) {
+            try (Stream<Path> entries = Files.list(Path.of(toolsPath))) {
+                entries.filter(p -> p.getFileName().toString().endsWith(".json"))
+                        .filter(Files::isRegularFile)
+                        .sorted()
+                        .forEach(files::add);
+            } catch (IOException e) {
+                log.warn("Cannot list tools folder {}: {}", toolsPath, e.getMessage());
+            }
+        }
+        return files;
+    }
+
+    /** Path part of the first server URL, e.g. "/rest" for "https://host:8443/rest". */
+    private static String basePath(JsonNode document) {
+        String url = document.path("servers").path(0).path("url").asText("");
+        String path = url.isEmpty() ? "" : URI.create(url).getPath();
+        if (path == null) {
+            return "";
+        }
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static String operationName(String method, String path, JsonNode operation) {
+        String id = operation.path("operationId").asText("");
+        return id.isEmpty() ? method + path : id;
+    }
+
+    private static String sanitize(String name) {
+        String cleaned = name.replaceAll("[^A-Za-z0-9_-]+", "_").replaceAll("^_+|_+$", "");
+        return cleaned.length() > MAX_NAME_LENGTH ? cleaned.substring(0, MAX_NAME_LENGTH) : cleaned;
+    }
+
+    private static void forEachOperation(JsonNode document, OperationVisitor visitor) {
+        for (Iterator<Map.Entry<String, JsonNode>> paths = document.path("paths").fields(); paths.hasNext();) {
+            Map.Entry<String, JsonNode> path = paths.next();
+            for (Iterator<Map.Entry<String, JsonNode>> ops = path.getValue().fields(); ops.hasNext();) {
+                Map.Entry<String, JsonNode> op = ops.next();
+                String method = op.getKey().toLowerCase(Locale.ROOT);
+                if (METHODS.contains(method)) {
+                    visitor.visit(method, path.getKey(), op.getValue());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface OperationVisitor {
+        void visit(String method, String path, JsonNode operation);
+    }
+}
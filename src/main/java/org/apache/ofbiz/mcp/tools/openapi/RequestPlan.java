@@ -0,0 +1,178 @@
+package org.apache.ofbiz.mcp.tools.openapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ofbiz.mcp.backend.BackendRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything about an OpenAPI operation that does not depend on the call
+ * arguments, worked out once: the URI template, which arguments go into the
+ * path, the query string and the body, and the fixed request headers.
+ * {@link #bind(Map)} then only has to copy argument values into place.
+ */
+final class RequestPlan {
+
+    private final HttpMethod method;
+    private final String path;
+    private final List<String> pathParams;
+    private final List<String> queryParams;
+    private final List<JsonSlot> jsonQueryParams;
+    private final JsonSlot body;
+    private final HttpHeaders headers;
+    private final ObjectMapper mapper;
+
+    /**
+     * A value sent as JSON. With {@code properties} set, it is assembled from
+     * the arguments of those names; otherwise the argument {@code name}
+     * holds the whole value.
+     */
+    private record JsonSlot(String name, List<String> properties, boolean required) {
+    }
+
+    private RequestPlan(HttpMethod method, String path, List<String> pathParams, List<String> queryParams,
+            List<JsonSlot> jsonQueryParams, JsonSlot body, HttpHeaders headers, ObjectMapper mapper) {
+        this.method = method;
+        this.path = path;
+        this.pathParams = pathParams;
+        this.queryParams = queryParams;
+        this.jsonQueryParams = jsonQueryParams;
+        this.body = body;
+        this.headers = headers;
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param parameters  the operation's parameters, references resolved
+     * @param requestBody the operation's request body, references resolved, or null
+     * @param flattened   JSON query parameters (and "body") whose object
+     *                    properties are exposed as separate tool arguments
+     */
+    static RequestPlan compile(HttpMethod method, String path, List<JsonNode> parameters, JsonNode requestBody,
+            Set<String> flattened, ObjectMapper mapper) {
+        List<String> pathParams = new ArrayList<>();
+        List<String> queryParams = new ArrayList<>();
+        List<JsonSlot> jsonQueryParams = new ArrayList<>();
+        HttpHeaders headers = new HttpHeaders();
+        for (JsonNode param : parameters) {
+            String name = param.path("name").asText();
+            boolean required = param.path("required").asBoolean(false);
+            switch (param.path("in").asText()) {
+                case "path" -> pathParams.add(name);
+                case "query" -> {
+                    if (param.has("content")) {
+                        jsonQueryParams.add(slot(name, OpenApiTool.parameterSchema(param), flattened, required));
+                    } else {
+                        queryParams.add(name);
+                    }
+                }
+                case "header" -> {
+                    String value = headerValue(param);
+                    if (value != null && !HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name)) {
+                        headers.set(name, value);
+                    }
+                }
+                default -> {
+                    // cookies are not supported
+                }
+            }
+        }
+        JsonSlot body = null;
+        if (requestBody != null) {
+            body = slot(OpenApiTool.BODY_ARGUMENT, OpenApiTool.bodySchema(requestBody), flattened,
+                    requestBody.path("required").asBoolean(false));
+            if (!headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+            }
+        }
+        if (!headers.containsKey(HttpHeaders.ACCEPT)) {
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        }
+        return new RequestPlan(method, path, List.copyOf(pathParams), List.copyOf(queryParams),
+                List.copyOf(jsonQueryParams), body, HttpHeaders.readOnlyHttpHeaders(headers), mapper);
+    }
+
+    HttpMethod method() {
+        return method;
+    }
+
+    BackendRequest bind(Map<String, Object> arguments) {
+        Map<String, Object> uriVariables = new LinkedHashMap<>();
+        for (String name : pathParams) {
+            Object value = arguments.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing required argument: " + name);
+            }
+            uriVariables.put(name, value);
+        }
+        Map<String, Object> query = new LinkedHashMap<>();
+        for (String name : queryParams) {
+            Object value = arguments.get(name);
+            if (value != null) {
+                query.put(name, value);
+            }
+        }
+        for (JsonSlot slot : jsonQueryParams) {
+            Object value = collect(slot, arguments);
+            if (value != null) {
+                query.put(slot.name(), value instanceof String s ? s : toJson(value));
+            }
+        }
+        Object bodyValue = body == null ? null : collect(body, arguments);
+        return new BackendRequest(method, path, uriVariables, query, headers, bodyValue);
+    }
+
+    private Object collect(JsonSlot slot, Map<String, Object> arguments) {
+        if (slot.properties() == null) {
+            Object value = arguments.get(slot.name());
+            if (value == null && slot.required()) {
+                throw new IllegalArgumentException("Missing required argument: " + slot.name());
+            }
+            return value;
+        }
+        Map<String, Object> value = new LinkedHashMap<>();
+        for (String property : slot.properties()) {
+            Object v = arguments.get(property);
+            if (v != null) {
+                value.put(property, v);
+            }
+        }
+        return value.isEmpty() && !slot.required() ? null : value;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode argument as JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static JsonSlot slot(String name, JsonNode schema, Set<String> flattened, boolean required) {
+        if (!flattened.contains(name)) {
+            return new JsonSlot(name, null, required);
+        }
+        List<String> properties = new ArrayList<>();
+        schema.path("properties").fieldNames().forEachRemaining(properties::add);
+        return new JsonSlot(name, List.copyOf(properties), required);
+    }
+
+    private static String headerValue(JsonNode param) {
+        for (JsonNode candidate : List.of(param.path("example"), param.path("schema").path("example"),
+                param.path("schema").path("default"))) {
+            if (candidate.isValueNode() && !candidate.isNull()) {
+                return candidate.asText();
+            }
+        }
+        return null;
+    }
+}
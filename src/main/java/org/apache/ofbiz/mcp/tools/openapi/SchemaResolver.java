@@ -0,0 +1,70 @@
+package org.apache.ofbiz.mcp.tools.openapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inlines local {@code $ref}s of one OpenAPI document.
+ *
+ * Each referenced component is resolved once and the result shared by every
+ * place that refers to it. A reference back to a component that is still
+ * being resolved becomes an open object schema instead of recursing forever.
+ */
+final class SchemaResolver {
+
+    private final JsonNode document;
+    private final Map<String, JsonNode> resolved = new HashMap<>();
+    private final Set<String> resolving = new HashSet<>();
+
+    SchemaResolver(JsonNode document) {
+        this.document = document;
+    }
+
+    JsonNode resolve(JsonNode node) {
+        if (node == null || node.isMissingNode() || node.isNull()) {
+            return node;
+        }
+        if (node.isObject() && node.has("$ref")) {
+            return resolveRef(node.get("$ref").asText());
+        }
+        if (node.isObject()) {
+            ObjectNode copy = JsonNodeFactory.instance.objectNode();
+            node.fields().forEachRemaining(e -> copy.set(e.getKey(), resolve(e.getValue())));
+            return copy;
+        }
+        if (node.isArray()) {
+            var copy = JsonNodeFactory.instance.arrayNode(node.size());
+            node.forEach(item -> copy.add(resolve(item)));
+            return copy;
+        }
+        return node;
+    }
+
+    private JsonNode resolveRef(String ref) {
+        JsonNode cached = resolved.get(ref);
+        if (cached != null) {
+            return cached;
+        }
+        if (!ref.startsWith("#/") || !resolving.add(ref)) {
+            // External or cyclic reference: accept any object
+            return JsonNodeFactory.instance.objectNode().put("type", "object");
+        }
+        try {
+            JsonNode target = document.at(ref.substring(1));
+            if (target.isMissingNode()) {
+                throw new IllegalArgumentException("Unresolvable $ref " + ref);
+            }
+            JsonNode result = resolve(target);
+            resolved.put(ref, result);
+            return result;
+        } finally {
+            resolving.remove(ref);
+        }
+    }
+}
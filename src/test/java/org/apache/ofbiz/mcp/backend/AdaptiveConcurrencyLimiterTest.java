@@ -0,0 +1,135 @@
+package org.apache.ofbiz.mcp.backend;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.apache.ofbiz.mcp.scheduling.FairShare;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final FairShare A = new FairShare("a", 1, FairShare.Priority.INTERACTIVE);
+    private static final FairShare B = new FairShare("b", 1, FairShare.Priority.INTERACTIVE);
+
+    // Calls may also be started by a drain on the parallel scheduler
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Sinks.One<String>> pending = new HashMap<>();
+    private final Map<String, Throwable> failed = new HashMap<>();
+
+    @Test
+    void queuesCallsOverTheLimitAndStartsThemInFairOrder() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        submit(limiter, "first", A);
+        submit(limiter, "a1", A);
+        submit(limiter, "a2", A);
+        submit(limiter, "b1", B);
+
+        assertThat(started).containsExactly("first");
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(3);
+
+        complete("first");
+        complete("a1");
+        complete("b1");
+        complete("a2");
+
+        assertThat(started).containsExactly("first", "a1", "b1", "a2");
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void startsQueuedCallsBeforeANewcomerTakesAFreedSlot() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        Disposable first = submit(limiter, "first", A);
+        submit(limiter, "queued", A);
+
+        // A cancelled call frees its slot at once but leaves the queue to a drain on another thread
+        first.dispose();
+        submit(limiter, "newcomer", A);
+
+        awaitStarted(2);
+        assertThat(started).containsExactly("first", "queued");
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        complete("queued");
+        awaitStarted(3);
+        assertThat(started).containsExactly("first", "queued", "newcomer");
+    }
+
+    @Test
+    void rejectsANewcomerOnceTheQueueIsFullUnlessAnotherFlowHasMoreWaiting() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        submit(limiter, "first", A);
+        submit(limiter, "a1", A);
+        submit(limiter, "a2", A);
+
+        submit(limiter, "a3", A);
+        assertThat(failed.get("a3")).isInstanceOf(BackendOverloadedException.class);
+
+        submit(limiter, "b1", B);
+        assertThat(failed).doesNotContainKey("b1");
+        assertThat(failed.get("a2")).isInstanceOf(BackendOverloadedException.class);
+        assertThat(limiter.getQueued()).isEqualTo(2);
+
+        complete("first");
+        complete("a1");
+        assertThat(started).containsExactly("first", "a1", "b1");
+    }
+
+    @Test
+    void cancellingAQueuedCallGivesUpItsPlace() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        submit(limiter, "first", A);
+        submit(limiter, "queued", A).dispose();
+
+        assertThat(limiter.getQueued()).isZero();
+
+        complete("first");
+        assertThat(started).containsExactly("first");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int maxQueued) {
+        AppConfig config = new AppConfig();
+        config.setBackendLimitMin(1);
+        config.setBackendLimitMax(1);
+        config.setBackendLimitInitial(1);
+        config.setBackendLimitQueueMax(maxQueued);
+        return new AdaptiveConcurrencyLimiter(config);
+    }
+
+    /** Submits a call that stays running until {@link #complete} is called with its name. */
+    private Disposable submit(AdaptiveConcurrencyLimiter limiter, String name, FairShare share) {
+        Sinks.One<String> result = Sinks.one();
+        pending.put(name, result);
+        Mono<String> call = Mono.defer(() -> {
+            started.add(name);
+            return result.asMono();
+        });
+        return limiter.execute(call)
+                .contextWrite(share.context())
+                .subscribe(value -> { }, error -> failed.put(name, error));
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void complete(String name) {
+        pending.get(name).tryEmitValue(name);
+    }
+}
@@ -0,0 +1,96 @@
+package org.apache.ofbiz.mcp.ratelimit;
+
+import org.apache.ofbiz.mcp.config.AppConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    // Windows start when the limiter is created, so each test begins at the start of one
+    private static final int WINDOW_MS = 200;
+
+    @Test
+    void grantsUpToTheLimitAndThenSaysWhenToRetry() {
+        SlidingWindowRateLimiter limiter = limiter(60_000, 3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a", 1)).isZero();
+        }
+        // Once this window is over, a third of it must pass before the estimate drops below 3
+        assertThat(limiter.tryAcquire("a", 1)).isBetween(20_000L, 80_000L);
+        assertThat(limiter.tryAcquire("b", 1)).isZero();
+    }
+
+    @Test
+    void retryAfterAnExhaustedWindowIsLongEnough() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = limiter(WINDOW_MS, 2, 100);
+        assertThat(limiter.tryAcquire("a", 2)).isZero();
+
+        long retryAfter = limiter.tryAcquire("a", 1);
+        assertThat(retryAfter).isGreaterThan(WINDOW_MS / 2);
+
+        Thread.sleep(retryAfter);
+        assertThat(limiter.tryAcquire("a", 1)).isZero();
+    }
+
+    @Test
+    void countsThePreviousWindowByHowMuchOfItStillOverlaps() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = limiter(WINDOW_MS, 2, 100);
+        assertThat(limiter.tryAcquire("a", 2)).isZero();
+
+        // Early in the next window nearly all of the previous one still counts
+        Thread.sleep(WINDOW_MS + 10);
+        long retryAfter = limiter.tryAcquire("a", 1);
+        assertThat(retryAfter).isBetween(1L, (long) WINDOW_MS / 2);
+
+        Thread.sleep(retryAfter);
+        assertThat(limiter.tryAcquire("a", 1)).isZero();
+        assertThat(limiter.tryAcquire("a", 1)).isPositive();
+    }
+
+    @Test
+    void forgetsAClientAfterTwoIdleWindows() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = limiter(WINDOW_MS, 2, 100);
+        assertThat(limiter.tryAcquire("a", 2)).isZero();
+
+        Thread.sleep(2 * WINDOW_MS + 10);
+        assertThat(limiter.tryAcquire("a", 2)).isZero();
+    }
+
+    @Test
+    void rejectsMorePermitsThanAWindowHolds() {
+        SlidingWindowRateLimiter limiter = limiter(60_000, 3, 100);
+
+        assertThat(limiter.tryAcquire("a", 4)).isEqualTo(60_000);
+        assertThat(limiter.tryAcquire("a", 3)).isZero();
+    }
+
+    @Test
+    void grantsEverythingWhenDisabled() {
+        SlidingWindowRateLimiter limiter = limiter(0, 1, 100);
+
+        assertThat(limiter.isEnabled()).isFalse();
+        assertThat(limiter.tryAcquire("a", 5)).isZero();
+        assertThat(limiter.tryAcquire("a", 5)).isZero();
+    }
+
+    @Test
+    void sharesOneOverflowBucketOnceMaxClientsAreTracked() {
+        SlidingWindowRateLimiter limiter = limiter(60_000, 2, 1);
+        assertThat(limiter.tryAcquire("a", 2)).isZero();
+
+        assertThat(limiter.tryAcquire("b", 1)).isZero();
+        assertThat(limiter.tryAcquire("c", 1)).isZero();
+        assertThat(limiter.tryAcquire("d", 1)).isPositive();
+        assertThat(limiter.trackedClients()).isEqualTo(1);
+    }
+
+    private static SlidingWindowRateLimiter limiter(int windowMs, int maxRequests, int maxClients) {
+        AppConfig config = new AppConfig();
+        config.setRateLimitWindowMs(windowMs);
+        config.setRateLimitMaxRequests(maxRequests);
+        config.setRateLimitMaxClients(maxClients);
+        return new SlidingWindowRateLimiter(config);
+    }
+}
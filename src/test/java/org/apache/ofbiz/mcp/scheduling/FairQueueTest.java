@@ -0,0 +1,117 @@
+package org.apache.ofbiz.mcp.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairQueueTest {
+
+    private static final FairShare A = new FairShare("a", 1, FairShare.Priority.INTERACTIVE);
+    private static final FairShare B = new FairShare("b", 1, FairShare.Priority.INTERACTIVE);
+    private static final FairShare HEAVY = new FairShare("heavy", 2, FairShare.Priority.INTERACTIVE);
+    private static final FairShare BULK = new FairShare("bulk", 1, FairShare.Priority.BULK);
+
+    private final FairQueue<String> queue = new FairQueue<>();
+
+    @Test
+    void takesTurnsBetweenFlowsAndKeepsOrderWithinOne() {
+        offer(A, "a1", "a2", "a3");
+        offer(B, "b1");
+
+        assertThat(drain()).containsExactly("a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    void servesFlowsInProportionToTheirWeight() {
+        offer(A, "a1", "a2", "a3");
+        offer(HEAVY, "h1", "h2", "h3", "h4", "h5", "h6");
+
+        List<String> order = drain();
+
+        assertThat(order.subList(0, 6)).containsExactlyInAnyOrder("a1", "a2", "h1", "h2", "h3", "h4");
+        assertThat(order).containsSubsequence("h1", "h2", "h3", "h4", "h5", "h6");
+    }
+
+    @Test
+    void servesInteractiveWorkBeforeBulk() {
+        offer(BULK, "bulk1", "bulk2");
+        offer(A, "a1");
+
+        assertThat(queue.poll()).isEqualTo("a1");
+        offer(B, "b1");
+        assertThat(drain()).containsExactly("b1", "bulk1", "bulk2");
+    }
+
+    @Test
+    void givesNoCreditToAFlowThatWasIdle() {
+        offer(A, "a1", "a2");
+        assertThat(queue.poll()).isEqualTo("a1");
+        assertThat(queue.poll()).isEqualTo("a2");
+
+        // B had nothing queued while A was served, so it does not get a run of its own now
+        offer(B, "b1", "b2");
+        offer(A, "a3");
+
+        assertThat(drain()).containsExactly("b1", "a3", "b2");
+    }
+
+    @Test
+    void removesAQueuedItem() {
+        offer(A, "a1", "a2");
+        offer(B, "b1");
+
+        assertThat(queue.remove("a1", A)).isTrue();
+        assertThat(queue.remove("a1", A)).isFalse();
+        assertThat(queue.remove("b1", A)).isFalse();
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(drain()).containsExactly("b1", "a2");
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void evictsTheNewestItemOfTheLongestOtherFlow() {
+        offer(A, "a1", "a2", "a3");
+        offer(B, "b1");
+
+        assertThat(queue.evictForNewcomer(B)).isEqualTo("a3");
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    @Test
+    void turnsAwayANewcomerWhoseFlowIsAlreadyTheLongest() {
+        offer(A, "a1", "a2");
+        offer(B, "b1");
+
+        assertThat(queue.evictForNewcomer(A)).isNull();
+        // One more queued than the newcomer's own flow would have is not enough either
+        assertThat(queue.evictForNewcomer(B)).isNull();
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsBulkWorkForInteractiveButNeverTheOtherWayRound() {
+        offer(BULK, "bulk1");
+        offer(A, "a1", "a2", "a3");
+
+        assertThat(queue.evictForNewcomer(B)).isEqualTo("bulk1");
+        assertThat(queue.evictForNewcomer(BULK)).isNull();
+        assertThat(drain()).containsExactly("a1", "a2", "a3");
+    }
+
+    private void offer(FairShare share, String... items) {
+        for (String item : items) {
+            queue.offer(item, share);
+        }
+    }
+
+    private List<String> drain() {
+        List<String> order = new ArrayList<>();
+        for (String item = queue.poll(); item != null; item = queue.poll()) {
+            order.add(item);
+        }
+        return order;
+    }
+}